@@ -0,0 +1,338 @@
+package com.drool.ruleengine.admission;
+
+import com.drool.ruleengine.admission.AdmissionRejectedException.Reason;
+import com.drool.ruleengine.service.RuleEngineService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of {@link RuleEngineService}.
+ * 
+ * Every request first takes tokens from its customer's token bucket, one token per
+ * transaction, and then permits from an adaptive concurrency limit, one permit per
+ * started {@code transactions-per-permit} transactions. A single request holds at
+ * most {@code max-request-share} of the limit, so a huge batch leaves room for other
+ * customers. When the limit is reached, requests wait in per-customer queues that
+ * are served round-robin, so a customer sending large batches cannot starve the
+ * others. Requests that need their rules
+ * compiled also take a permit from a small, fixed compile budget. Requests that
+ * cannot be admitted within the maximum wait are rejected with
+ * {@link AdmissionRejectedException} and their tokens are returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionController {
+    private final RuleEngineService ruleEngineService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ruleengine.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ruleengine.admission.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${ruleengine.admission.min-limit:4}")
+    private int minLimit;
+
+    @Value("${ruleengine.admission.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${ruleengine.admission.max-wait-ms:50}")
+    private long maxWaitMs;
+
+    @Value("${ruleengine.admission.backoff-interval-ms:1000}")
+    private long backoffIntervalMs;
+
+    @Value("${ruleengine.admission.max-queue-per-customer:32}")
+    private int maxQueuePerCustomer;
+
+    @Value("${ruleengine.admission.transactions-per-permit:100}")
+    private int transactionsPerPermit;
+
+    @Value("${ruleengine.admission.max-request-share:0.25}")
+    private double maxRequestShare;
+
+    @Value("${ruleengine.admission.customer-rate:500}")
+    private double customerRate;
+
+    @Value("${ruleengine.admission.customer-burst:2000}")
+    private double customerBurst;
+
+    @Value("${ruleengine.admission.compile-concurrency:2}")
+    private int compileConcurrency;
+
+    @Value("${ruleengine.admission.compile-wait-ms:200}")
+    private long compileWaitMs;
+
+    private GradientConcurrencyLimit limit;
+    private Semaphore compilePermits;
+    private Cache<String, TokenBucket> buckets;
+    private final Map<Reason, Counter> rejections = new EnumMap<>(Reason.class);
+
+    // Guarded by this, in concurrency permits
+    private int inFlight;
+    private int queued;
+    // Concurrency permits in flight by customerId
+    private final Map<String, Integer> customerInFlight = new HashMap<>();
+    // Waiting requests by customerId, in round-robin order
+    private final LinkedHashMap<String, ArrayDeque<Waiter>> waiters = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(backoffIntervalMs));
+        compilePermits = new Semaphore(compileConcurrency);
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        for (Reason reason : Reason.values()) {
+            rejections.put(reason, Counter.builder("ruleengine.admission.rejected")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("ruleengine.admission.limit", limit, GradientConcurrencyLimit::getLimit).register(meterRegistry);
+        Gauge.builder("ruleengine.admission.inflight", this, AdmissionController::getInFlight).register(meterRegistry);
+        Gauge.builder("ruleengine.admission.queued", this, AdmissionController::getQueued).register(meterRegistry);
+    }
+
+    /**
+     * Admit a request of a customer.
+     * 
+     * @param customerId The ID of the customer
+     * @param cost The number of transactions in the request
+     * @return The permit to close when the request completes
+     * @throws AdmissionRejectedException if the request is not admitted
+     */
+    public Permit acquire(String customerId, int cost) {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+
+        TokenBucket bucket = buckets.get(customerId, id -> new TokenBucket(customerBurst, customerRate));
+        long waitNanos = bucket.tryConsume(cost);
+        if (waitNanos > 0) {
+            throw reject(Reason.RATE_LIMITED, customerId, waitNanos);
+        }
+
+        try {
+            return admit(customerId, Math.max(1, (cost + transactionsPerPermit - 1) / transactionsPerPermit));
+        } catch (AdmissionRejectedException e) {
+            // The request did no work, so it is not charged to the customer
+            bucket.refund(cost);
+            throw e;
+        }
+    }
+
+    private Permit admit(String customerId, int weight) {
+        Permit permit = acquireConcurrency(customerId, weight);
+        if (ruleEngineService.needsCompile(customerId)) {
+            try {
+                if (!compilePermits.tryAcquire(compileWaitMs, TimeUnit.MILLISECONDS)) {
+                    permit.abandon();
+                    throw reject(Reason.COMPILE_BUDGET, customerId, TimeUnit.MILLISECONDS.toNanos(compileWaitMs));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                permit.abandon();
+                throw reject(Reason.TIMEOUT, customerId, 0);
+            }
+            permit.compiling = true;
+        }
+        return permit;
+    }
+
+    private Permit acquireConcurrency(String customerId, int weight) {
+        Waiter waiter;
+        synchronized (this) {
+            if (queued == 0 && fits(weight)) {
+                return grant(customerId, weight);
+            }
+            ArrayDeque<Waiter> queue = waiters.computeIfAbsent(customerId, id -> new ArrayDeque<>());
+            if (queue.size() >= maxQueuePerCustomer) {
+                throw reject(Reason.QUEUE_FULL, customerId, TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+            }
+            waiter = new Waiter(customerId, weight);
+            queue.addLast(waiter);
+            queued++;
+        }
+
+        try {
+            waiter.latch.await(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean lockedOut;
+        synchronized (this) {
+            if (waiter.permit != null) {
+                return waiter.permit;
+            }
+            // Timed out or interrupted before a permit was handed over
+            ArrayDeque<Waiter> queue = waiters.get(customerId);
+            if (queue != null && queue.remove(waiter)) {
+                queued--;
+                if (queue.isEmpty()) {
+                    waiters.remove(customerId);
+                }
+            }
+            // The waiter may have blocked smaller requests queued behind it
+            dispatch();
+            lockedOut = !customerInFlight.containsKey(customerId);
+        }
+        // A customer with requests in flight timed out behind its own backlog, which
+        // says nothing about the capacity left for the others
+        if (lockedOut) {
+            limit.onDropped();
+        }
+        throw reject(Reason.TIMEOUT, customerId, TimeUnit.MILLISECONDS.toNanos(maxWaitMs));
+    }
+
+    // Must hold the lock. Permits taken by a request, at most its share of the limit.
+    private int permitsFor(int weight) {
+        return Math.min(weight, Math.max(1, (int) (limit.getLimit() * maxRequestShare)));
+    }
+
+    // Must hold the lock
+    private boolean fits(int weight) {
+        return inFlight + permitsFor(weight) <= limit.getLimit();
+    }
+
+    // Must hold the lock
+    private Permit grant(String customerId, int weight) {
+        int permits = permitsFor(weight);
+        inFlight += permits;
+        customerInFlight.merge(customerId, permits, Integer::sum);
+        return new Permit(this, customerId, System.nanoTime(), inFlight, permits);
+    }
+
+    // Must hold the lock. Hand free permits to waiting customers in round-robin order;
+    // a large request at the head is not overtaken, so it cannot be starved by smaller ones.
+    private void dispatch() {
+        while (queued > 0) {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> it = waiters.entrySet().iterator();
+            Map.Entry<String, ArrayDeque<Waiter>> next = it.next();
+            ArrayDeque<Waiter> queue = next.getValue();
+            if (!fits(queue.peekFirst().weight)) {
+                break;
+            }
+            it.remove();
+            Waiter waiter = queue.pollFirst();
+            queued--;
+            if (!queue.isEmpty()) {
+                waiters.put(next.getKey(), queue);
+            }
+            waiter.permit = grant(waiter.customerId, waiter.weight);
+            waiter.latch.countDown();
+        }
+    }
+
+    private void release(Permit permit) {
+        if (permit.compiling) {
+            compilePermits.release();
+        } else if (permit.sampled && permit.permits == 1) {
+            // Compilation time says nothing about evaluation capacity, and the latency of
+            // large batches grows with their size, so only single-permit evaluations are sampled
+            limit.onSample(System.nanoTime() - permit.startNanos, permit.inFlightAtStart);
+        }
+        synchronized (this) {
+            inFlight -= permit.permits;
+            customerInFlight.computeIfPresent(permit.customerId,
+                    (id, permits) -> permits == permit.permits ? null : permits - permit.permits);
+            // Also admits waiters that fit only because the sample raised the limit
+            dispatch();
+        }
+    }
+
+    private AdmissionRejectedException reject(Reason reason, String customerId, long retryAfterNanos) {
+        rejections.get(reason).increment();
+        log.debug("Rejected request of customer {}: {}", customerId, reason);
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new AdmissionRejectedException(reason, customerId, retryAfterSeconds);
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    private static final class Waiter {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final String customerId;
+        private final int weight;
+        // Guarded by the AdmissionController lock
+        private Permit permit;
+
+        private Waiter(String customerId, int weight) {
+            this.customerId = customerId;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Permit of an admitted request, closed when the request completes.
+     */
+    public static final class Permit implements AutoCloseable {
+        static final Permit NONE = new Permit(null, null, 0, 0, 0);
+
+        private final AdmissionController owner;
+        private final String customerId;
+        private final long startNanos;
+        private final int inFlightAtStart;
+        // Concurrency permits held by the request
+        private final int permits;
+        private boolean compiling;
+        private boolean sampled = true;
+        private boolean closed;
+
+        private Permit(AdmissionController owner, String customerId, long startNanos, int inFlightAtStart, int permits) {
+            this.owner = owner;
+            this.customerId = customerId;
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+            this.permits = permits;
+        }
+
+        @Override
+        public void close() {
+            if (owner == null || closed) {
+                return;
+            }
+            closed = true;
+            owner.release(this);
+        }
+
+        /**
+         * Release the permit of a request that was rejected after admission.
+         */
+        private void abandon() {
+            sampled = false;
+            close();
+        }
+    }
+}
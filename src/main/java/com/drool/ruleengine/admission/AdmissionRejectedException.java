@@ -0,0 +1,30 @@
+package com.drool.ruleengine.admission;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is rejected by {@link AdmissionController} because the
+ * customer exceeded its rate or the service is overloaded.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+    private final Reason reason;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(Reason reason, String customerId, long retryAfterSeconds) {
+        super("Request of customer " + customerId + " rejected: " + reason);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public enum Reason {
+        /** The customer's token bucket is empty */
+        RATE_LIMITED,
+        /** The customer already has too many requests waiting */
+        QUEUE_FULL,
+        /** No concurrency permit became available within the maximum wait */
+        TIMEOUT,
+        /** Too many rule compilations are already running */
+        COMPILE_BUDGET
+    }
+}
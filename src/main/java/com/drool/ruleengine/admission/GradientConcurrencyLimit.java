@@ -0,0 +1,85 @@
+package com.drool.ruleengine.admission;
+
+/**
+ * Adaptive concurrency limit based on the gradient between the long-term and the
+ * current request latency. While latency stays near its long-term average the limit
+ * grows by roughly the square root of itself; when latency rises because requests
+ * queue up for CPU or connections, the limit shrinks proportionally. Requests dropped
+ * under overload cut the limit multiplicatively (AIMD backoff), at most once per
+ * backoff interval however many requests are dropped in it.
+ */
+public class GradientConcurrencyLimit {
+    // Weight of a new limit estimate
+    private static final double SMOOTHING = 0.2;
+    // Weight of a sample in the long-term latency, roughly a 100 sample window
+    private static final double LONG_RTT_WEIGHT = 0.01;
+    // Latency increase tolerated before the limit is reduced
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long backoffIntervalNanos;
+    private double limit;
+    private double longRttNanos;
+    private long lastBackoffNanos;
+    private boolean backedOff;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long backoffIntervalNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffIntervalNanos = backoffIntervalNanos;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Update the limit from a completed request.
+     * 
+     * @param rttNanos The latency of the request
+     * @param inFlight The number of requests in flight when the request started
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        longRttNanos = longRttNanos == 0
+                ? rttNanos
+                : longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+
+        // Let the long-term latency recover quickly after a load spike
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        // Only move the limit when it is actually being used
+        if (inFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        setLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    /**
+     * Back off after a request was dropped because the service is overloaded.
+     * Requests dropped within the same backoff interval are one overload and
+     * reduce the limit only once.
+     */
+    public synchronized void onDropped() {
+        long now = System.nanoTime();
+        if (backedOff && now - lastBackoffNanos < backoffIntervalNanos) {
+            return;
+        }
+        backedOff = true;
+        lastBackoffNanos = now;
+        setLimit(limit * BACKOFF_RATIO);
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,54 @@
+package com.drool.ruleengine.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the rate of work a single customer can submit.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double capacity, double tokensPerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take tokens from the bucket if enough are available. Costs above the
+     * capacity only wait for a full bucket instead of being rejected forever, but
+     * are still charged in full: the bucket goes into debt and later requests wait
+     * until it is paid back.
+     * 
+     * @param cost The number of tokens to take
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until enough tokens are available
+     */
+    public synchronized long tryConsume(double cost) {
+        refill();
+        double needed = Math.min(cost, capacity);
+        if (tokens >= needed) {
+            tokens -= cost;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Return the tokens of a request that was rejected after taking them.
+     * 
+     * @param cost The number of tokens taken
+     */
+    public synchronized void refund(double cost) {
+        tokens = Math.min(capacity, tokens + cost);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
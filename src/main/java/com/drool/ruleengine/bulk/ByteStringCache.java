@@ -0,0 +1,52 @@
+package com.drool.ruleengine.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Direct-mapped cache from byte ranges to decoded strings.
+ * Repeated values such as merchant types and locations resolve to the same
+ * String instance without decoding the bytes again. Not thread-safe.
+ */
+final class ByteStringCache {
+    private final byte[][] keys;
+    private final String[] values;
+    private final int mask;
+
+    ByteStringCache(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+        this.keys = new byte[size][];
+        this.values = new String[size];
+        this.mask = size - 1;
+    }
+
+    String get(ByteBuffer buffer, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        byte[] key = keys[slot];
+        if (key != null && matches(key, buffer, from, to)) {
+            return values[slot];
+        }
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        keys[slot] = bytes;
+        values[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
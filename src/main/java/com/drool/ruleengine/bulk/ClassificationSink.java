@@ -0,0 +1,24 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import com.drool.ruleengine.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of classified transactions of a bulk job.
+ * Implementations persist the checkpoint together with each chunk so that a
+ * resumed job neither loses nor duplicates records.
+ */
+public interface ClassificationSink extends Closeable {
+
+    /**
+     * Write a chunk of classified transactions and the checkpoint reached after it.
+     * 
+     * @param chunk The classified transactions
+     * @param checkpoint The job checkpoint including the chunk
+     */
+    void write(List<Transaction> chunk, BulkJobCheckpoint checkpoint) throws IOException;
+}
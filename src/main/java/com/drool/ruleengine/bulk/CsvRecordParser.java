@@ -0,0 +1,95 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses CSV records with the columns {@code merchant,merchantType,amount,location}.
+ * A header line starting with {@code merchant,} is skipped and extra trailing
+ * columns are ignored. Quoted fields may contain commas and doubled quotes.
+ */
+public class CsvRecordParser implements RecordParser {
+    private static final byte[] HEADER_PREFIX = "merchant,".getBytes(StandardCharsets.US_ASCII);
+    private static final int FIELD_COUNT = 4;
+    private static final int MERCHANT = 0;
+    private static final int MERCHANT_TYPE = 1;
+    private static final int AMOUNT = 2;
+    private static final int LOCATION = 3;
+
+    private final ByteStringCache strings = new ByteStringCache(4096);
+    // Start and end index of each field of the current record
+    private final int[] bounds = new int[FIELD_COUNT * 2];
+    private final boolean[] escaped = new boolean[FIELD_COUNT];
+
+    @Override
+    public Transaction parse(ByteBuffer buffer, int from, int to) {
+        if (from == to || ByteBuffers.startsWith(buffer, from, to, HEADER_PREFIX)) {
+            return null;
+        }
+        int pos = from;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            if (pos < to && buffer.get(pos) == '"') {
+                pos = quotedField(buffer, pos + 1, to, field);
+            } else {
+                int end = ByteBuffers.indexOf(buffer, pos, to, (byte) ',');
+                end = end < 0 ? to : end;
+                bounds[2 * field] = pos;
+                bounds[2 * field + 1] = end;
+                escaped[field] = false;
+                pos = end;
+            }
+            if (pos < to && buffer.get(pos) == ',') {
+                pos++;
+            } else if (field < FIELD_COUNT - 1) {
+                throw new IllegalArgumentException("Expected " + FIELD_COUNT + " fields but found " + (field + 1));
+            }
+        }
+
+        Transaction tx = new Transaction();
+        tx.setMerchant(string(buffer, MERCHANT));
+        tx.setMerchantType(string(buffer, MERCHANT_TYPE));
+        tx.setAmount(ByteBuffers.parseDouble(buffer, bounds[2 * AMOUNT], bounds[2 * AMOUNT + 1]));
+        tx.setLocation(string(buffer, LOCATION));
+        return tx;
+    }
+
+    /**
+     * Record the bounds of a quoted field and return the index after its closing quote.
+     */
+    private int quotedField(ByteBuffer buffer, int start, int to, int field) {
+        boolean hasEscapes = false;
+        int i = start;
+        while (true) {
+            if (i >= to) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            if (buffer.get(i) == '"') {
+                if (i + 1 < to && buffer.get(i + 1) == '"') {
+                    hasEscapes = true;
+                    i += 2;
+                    continue;
+                }
+                break;
+            }
+            i++;
+        }
+        bounds[2 * field] = start;
+        bounds[2 * field + 1] = i;
+        escaped[field] = hasEscapes;
+        return i + 1;
+    }
+
+    private String string(ByteBuffer buffer, int field) {
+        int start = bounds[2 * field];
+        int end = bounds[2 * field + 1];
+        if (start == end) {
+            return null;
+        }
+        if (escaped[field]) {
+            return ByteBuffers.decode(buffer, start, end).replace("\"\"", "\"");
+        }
+        return strings.get(buffer, start, end);
+    }
+}
@@ -0,0 +1,34 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.BulkJobCheckpointRepository;
+import com.drool.ruleengine.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Saves classified transactions to the database. Inserts are sent in JDBC
+ * batches (see {@code hibernate.jdbc.batch_size}) and the checkpoint is saved
+ * in the same transaction as the chunk.
+ */
+@RequiredArgsConstructor
+public class DatabaseClassificationSink implements ClassificationSink {
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionRepository txRepo;
+    private final BulkJobCheckpointRepository checkpointRepo;
+
+    @Override
+    public void write(List<Transaction> chunk, BulkJobCheckpoint checkpoint) {
+        transactionTemplate.executeWithoutResult(status -> {
+            txRepo.saveAll(chunk);
+            checkpointRepo.save(checkpoint);
+        });
+    }
+
+    @Override
+    public void close() {
+    }
+}
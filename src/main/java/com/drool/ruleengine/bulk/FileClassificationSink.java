@@ -0,0 +1,59 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.BulkJobCheckpointRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes classified transactions to an output file. Each chunk is forced to
+ * disk before the checkpoint is saved; on resume, output written after the
+ * last checkpoint is truncated.
+ */
+public class FileClassificationSink implements ClassificationSink {
+    private final FileChannel channel;
+    private final RecordFormat format;
+    private final BulkJobCheckpointRepository checkpointRepo;
+    private final StringBuilder text = new StringBuilder(64 * 1024);
+
+    public FileClassificationSink(Path output, RecordFormat format, BulkJobCheckpoint checkpoint,
+                                  BulkJobCheckpointRepository checkpointRepo) throws IOException {
+        this.channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.format = format;
+        this.checkpointRepo = checkpointRepo;
+        channel.truncate(checkpoint.getOutputOffset());
+        channel.position(checkpoint.getOutputOffset());
+        if (checkpoint.getOutputOffset() == 0) {
+            format.appendHeader(text);
+        }
+    }
+
+    @Override
+    public void write(List<Transaction> chunk, BulkJobCheckpoint checkpoint) throws IOException {
+        for (Transaction tx : chunk) {
+            format.append(text, tx);
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        text.setLength(0);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+
+        checkpoint.setOutputOffset(channel.position());
+        checkpointRepo.save(checkpoint);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads newline-delimited records from a file through a sliding memory-mapped window.
+ * Records are handed to a {@link RecordParser} as byte ranges of the mapping, so
+ * lines are never copied into intermediate strings. The byte offset after the last
+ * consumed record is exposed for checkpointing.
+ */
+@Slf4j
+public class MappedRecordReader implements Closeable {
+    static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long skippedRecords;
+
+    /**
+     * @param file The file to read
+     * @param startOffset The byte offset of the first record to read, e.g. from a checkpoint
+     */
+    public MappedRecordReader(Path file, long startOffset) throws IOException {
+        this(file, startOffset, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedRecordReader(Path file, long startOffset, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        this.position = Math.min(startOffset, size);
+    }
+
+    /**
+     * @return The byte offset after the last consumed record
+     */
+    public long position() {
+        return position;
+    }
+
+    public boolean hasRemaining() {
+        return position < size;
+    }
+
+    /**
+     * @return The number of malformed records skipped so far
+     */
+    public long skippedRecords() {
+        return skippedRecords;
+    }
+
+    /**
+     * Parse records into the given list until it holds {@code maxRecords}
+     * transactions or the end of the file is reached.
+     * 
+     * @param parser The parser for the file format
+     * @param out The list receiving parsed transactions
+     * @param maxRecords The maximum size of the list
+     */
+    public void readChunk(RecordParser parser, List<Transaction> out, int maxRecords) throws IOException {
+        while (out.size() < maxRecords && position < size) {
+            if (window == null || position >= windowStart + window.limit()) {
+                map(position);
+            }
+            int from = (int) (position - windowStart);
+            int limit = window.limit();
+            int end = ByteBuffers.indexOf(window, from, limit, (byte) '\n');
+            if (end < 0) {
+                if (windowStart + limit < size) {
+                    if (from == 0) {
+                        throw new IOException("Record at offset " + position + " exceeds " + windowSize + " bytes");
+                    }
+                    // The record crosses the end of the window, remap starting at the record
+                    map(position);
+                    continue;
+                }
+                // Last record without a trailing newline
+                end = limit;
+            }
+
+            int to = end > from && window.get(end - 1) == '\r' ? end - 1 : end;
+            try {
+                Transaction tx = parser.parse(window, from, to);
+                if (tx != null) {
+                    out.add(tx);
+                }
+            } catch (IllegalArgumentException e) {
+                skippedRecords++;
+                log.warn("Skipping malformed record at offset {}: {}", position, e.getMessage());
+            }
+            position = windowStart + Math.min(end + 1, limit);
+        }
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
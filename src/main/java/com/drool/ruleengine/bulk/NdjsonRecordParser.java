@@ -0,0 +1,164 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses newline-delimited JSON records, one flat object per line, with the
+ * keys {@code merchant}, {@code merchantType}, {@code amount} and {@code location}.
+ * Other keys are ignored; nested objects and arrays are not supported.
+ */
+public class NdjsonRecordParser implements RecordParser {
+    private static final byte[] MERCHANT = "merchant".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MERCHANT_TYPE = "merchantType".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AMOUNT = "amount".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOCATION = "location".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteStringCache strings = new ByteStringCache(4096);
+    // Whether the string scanned last contained escape sequences
+    private boolean lastStringEscaped;
+
+    @Override
+    public Transaction parse(ByteBuffer buffer, int from, int to) {
+        int pos = skipWhitespace(buffer, from, to);
+        if (pos == to) {
+            return null;
+        }
+        if (buffer.get(pos) != '{') {
+            throw new IllegalArgumentException("Expected '{' at start of record");
+        }
+        pos++;
+
+        Transaction tx = new Transaction();
+        while (true) {
+            pos = skipWhitespace(buffer, pos, to);
+            if (pos >= to) {
+                throw new IllegalArgumentException("Unterminated object");
+            }
+            byte b = buffer.get(pos);
+            if (b == '}') {
+                return tx;
+            }
+            if (b == ',') {
+                pos++;
+                continue;
+            }
+            if (b != '"') {
+                throw new IllegalArgumentException("Expected key at index " + (pos - from));
+            }
+
+            int keyStart = pos + 1;
+            int keyEnd = endOfString(buffer, keyStart, to);
+            pos = skipWhitespace(buffer, keyEnd + 1, to);
+            if (pos >= to || buffer.get(pos) != ':') {
+                throw new IllegalArgumentException("Expected ':' at index " + (pos - from));
+            }
+            pos = skipWhitespace(buffer, pos + 1, to);
+            if (pos >= to) {
+                throw new IllegalArgumentException("Missing value");
+            }
+
+            b = buffer.get(pos);
+            if (b == '"') {
+                int valueStart = pos + 1;
+                int valueEnd = endOfString(buffer, valueStart, to);
+                if (ByteBuffers.equalsAscii(buffer, keyStart, keyEnd, AMOUNT)) {
+                    tx.setAmount(ByteBuffers.parseDouble(buffer, valueStart, valueEnd));
+                } else {
+                    setString(tx, buffer, keyStart, keyEnd, string(buffer, valueStart, valueEnd));
+                }
+                pos = valueEnd + 1;
+            } else if (b == '{' || b == '[') {
+                throw new IllegalArgumentException("Nested values are not supported");
+            } else {
+                int valueEnd = pos;
+                while (valueEnd < to && !isValueTerminator(buffer.get(valueEnd))) {
+                    valueEnd++;
+                }
+                if (b != 'n' && ByteBuffers.equalsAscii(buffer, keyStart, keyEnd, AMOUNT)) {
+                    tx.setAmount(ByteBuffers.parseDouble(buffer, pos, valueEnd));
+                }
+                pos = valueEnd;
+            }
+        }
+    }
+
+    private static void setString(Transaction tx, ByteBuffer buffer, int keyStart, int keyEnd, String value) {
+        if (ByteBuffers.equalsAscii(buffer, keyStart, keyEnd, MERCHANT)) {
+            tx.setMerchant(value);
+        } else if (ByteBuffers.equalsAscii(buffer, keyStart, keyEnd, MERCHANT_TYPE)) {
+            tx.setMerchantType(value);
+        } else if (ByteBuffers.equalsAscii(buffer, keyStart, keyEnd, LOCATION)) {
+            tx.setLocation(value);
+        }
+    }
+
+    private String string(ByteBuffer buffer, int start, int end) {
+        if (lastStringEscaped) {
+            return unescape(ByteBuffers.decode(buffer, start, end));
+        }
+        return strings.get(buffer, start, end);
+    }
+
+    /**
+     * Return the index of the closing quote of a string starting at the given index.
+     */
+    private int endOfString(ByteBuffer buffer, int start, int to) {
+        lastStringEscaped = false;
+        for (int i = start; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                lastStringEscaped = true;
+                i++;
+            } else if (b == '"') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    private static int skipWhitespace(ByteBuffer buffer, int pos, int to) {
+        while (pos < to) {
+            byte b = buffer.get(pos);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isValueTerminator(byte b) {
+        return b == ',' || b == '}' || b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 >= value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char escape = value.charAt(++i);
+            switch (escape) {
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 4 >= value.length()) {
+                        throw new IllegalArgumentException("Invalid unicode escape");
+                    }
+                    sb.append((char) Integer.parseInt(value, i + 1, i + 5, 16));
+                    i += 4;
+                }
+                default -> sb.append(escape);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+
+import java.nio.file.Path;
+
+/**
+ * Spool file formats, selected by file extension. The classified output of a
+ * file is written in the same format with the category appended.
+ */
+public enum RecordFormat {
+    CSV(".csv") {
+        @Override
+        public RecordParser newParser() {
+            return new CsvRecordParser();
+        }
+
+        @Override
+        public void appendHeader(StringBuilder out) {
+            out.append("merchant,merchantType,amount,location,category\n");
+        }
+
+        @Override
+        public void append(StringBuilder out, Transaction tx) {
+            appendCsv(out, tx.getMerchant());
+            out.append(',');
+            appendCsv(out, tx.getMerchantType());
+            out.append(',').append(tx.getAmount()).append(',');
+            appendCsv(out, tx.getLocation());
+            out.append(',');
+            appendCsv(out, tx.getCategory());
+            out.append('\n');
+        }
+    },
+    NDJSON(".ndjson") {
+        @Override
+        public RecordParser newParser() {
+            return new NdjsonRecordParser();
+        }
+
+        @Override
+        public void appendHeader(StringBuilder out) {
+        }
+
+        @Override
+        public void append(StringBuilder out, Transaction tx) {
+            out.append("{\"merchant\":");
+            appendJson(out, tx.getMerchant());
+            out.append(",\"merchantType\":");
+            appendJson(out, tx.getMerchantType());
+            out.append(",\"amount\":").append(tx.getAmount()).append(",\"location\":");
+            appendJson(out, tx.getLocation());
+            out.append(",\"category\":");
+            appendJson(out, tx.getCategory());
+            out.append("}\n");
+        }
+    };
+
+    private final String extension;
+
+    RecordFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public abstract RecordParser newParser();
+
+    public abstract void appendHeader(StringBuilder out);
+
+    public abstract void append(StringBuilder out, Transaction tx);
+
+    /**
+     * @return The format of the given file, or null if the extension is not supported
+     */
+    public static RecordFormat forFile(Path file) {
+        String name = file.getFileName().toString();
+        for (RecordFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    private static void appendCsv(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.append(value);
+            return;
+        }
+        out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void appendJson(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,23 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses a single record directly from the bytes of a mapped input file.
+ * Implementations are not thread-safe; each reader uses its own parser.
+ */
+public interface RecordParser {
+
+    /**
+     * Parse the record held in the given byte range.
+     * 
+     * @param buffer The buffer holding the record
+     * @param from The index of the first byte of the record
+     * @param to The index after the last byte of the record, excluding the line terminator
+     * @return The parsed transaction, or null if the line holds no record (blank line or header)
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    Transaction parse(ByteBuffer buffer, int from, int to);
+}
@@ -0,0 +1,266 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.BulkJobCheckpointRepository;
+import com.drool.ruleengine.repository.TransactionRepository;
+import com.drool.ruleengine.service.RuleEngineService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Bulk classification of transaction extracts dropped into a spool directory.
+ * 
+ * Files are named {@code <customerId>__<name>.csv} or {@code <customerId>__<name>.ndjson}.
+ * A file is only picked up once its size and modification time did not change between
+ * two scans; dotfiles are ignored, so writers can also write to a dotfile and rename it.
+ * Each file is read through a memory-mapped window, classified in parallel chunks
+ * through {@link RuleEngineService} and written to an output file or to the database.
+ * Progress is checkpointed after every chunk so an interrupted job resumes where it
+ * stopped. Finished files are moved to {@code processed/}, files without a customer
+ * prefix to {@code rejected/}.
+ */
+@Component
+@ConditionalOnProperty(name = "ruleengine.bulk.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class SpoolDirectoryProcessor {
+    private static final String CUSTOMER_SEPARATOR = "__";
+    private static final String PROCESSED_DIR = "processed";
+    private static final String REJECTED_DIR = "rejected";
+
+    private final RuleEngineService ruleEngineService;
+    private final TransactionRepository txRepo;
+    private final BulkJobCheckpointRepository checkpointRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${ruleengine.bulk.input-dir}")
+    private String inputDirectory;
+
+    @Value("${ruleengine.bulk.output-dir:}")
+    private String outputDirectory;
+
+    /**
+     * Where classified transactions are written.
+     * Possible values: "file", "db"
+     */
+    @Value("${ruleengine.bulk.sink:file}")
+    private String sinkType;
+
+    @Value("${ruleengine.bulk.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${ruleengine.bulk.parallelism:0}")
+    private int parallelism;
+
+    private Path inputDir;
+    private Path outputDir;
+    private ExecutorService executor;
+    // Runs the bulk jobs so that they don't block the shared scheduler thread
+    private ExecutorService jobExecutor;
+    private Future<?> runningJobs;
+    // Size and modification time of the spool files seen by the previous scan
+    private Map<Path, FileState> observedFiles = new HashMap<>();
+
+    private record FileState(long size, long lastModified) {
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        inputDir = Paths.get(inputDirectory);
+        outputDir = outputDirectory.isBlank() ? inputDir.resolve("out") : Paths.get(outputDirectory);
+        Files.createDirectories(inputDir);
+        Files.createDirectories(outputDir);
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        executor = Executors.newFixedThreadPool(parallelism);
+        jobExecutor = Executors.newSingleThreadExecutor();
+        log.info("Watching spool directory {} with {} classification threads, sink: {}", inputDir, parallelism, sinkType);
+    }
+
+    @PreDestroy
+    void stop() {
+        jobExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start processing the complete spool files in the input directory, oldest name first.
+     * The files are processed in the background; no new files are started while a
+     * previous scan is still being processed.
+     */
+    @Scheduled(fixedDelayString = "${ruleengine.bulk.poll-interval-ms:10000}")
+    public synchronized void scan() {
+        if (runningJobs != null && !runningJobs.isDone()) {
+            return;
+        }
+        List<Path> files = completeFiles();
+        if (!files.isEmpty()) {
+            runningJobs = jobExecutor.submit(() -> processFiles(files));
+        }
+    }
+
+    /**
+     * List the spool files that did not change since the previous scan, i.e. that
+     * are no longer being written.
+     */
+    private List<Path> completeFiles() {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(inputDir)) {
+            files = listing
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .filter(file -> RecordFormat.forFile(file) != null)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            log.error("Error listing spool directory {}: {}", inputDir, e.getMessage());
+            return List.of();
+        }
+
+        Map<Path, FileState> states = new HashMap<>();
+        List<Path> complete = new ArrayList<>();
+        for (Path file : files) {
+            FileState state;
+            try {
+                state = new FileState(Files.size(file), Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                // Moved or deleted since the listing
+                continue;
+            }
+            states.put(file, state);
+            if (state.equals(observedFiles.get(file))) {
+                complete.add(file);
+            } else {
+                log.debug("Spool file {} is new or still being written", file.getFileName());
+            }
+        }
+        observedFiles = states;
+        return complete;
+    }
+
+    private void processFiles(List<Path> files) {
+        for (Path file : files) {
+            try {
+                processFile(file);
+            } catch (Exception e) {
+                log.error("Bulk classification of {} failed, it will resume from the last checkpoint", file, e);
+            }
+        }
+    }
+
+    /**
+     * Classify a single spool file, resuming from its checkpoint if there is one.
+     * 
+     * @param file The spool file
+     */
+    public void processFile(Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        int separator = fileName.indexOf(CUSTOMER_SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Spool file {} has no '<customerId>{}' prefix, moving it to {}", fileName, CUSTOMER_SEPARATOR, REJECTED_DIR);
+            moveTo(file, REJECTED_DIR);
+            return;
+        }
+        String customerId = fileName.substring(0, separator);
+        RecordFormat format = RecordFormat.forFile(file);
+
+        long size = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        BulkJobCheckpoint checkpoint = checkpointRepo.findById(fileName)
+                .filter(cp -> cp.getFileSize() == size && cp.getLastModified() == lastModified)
+                .orElseGet(() -> new BulkJobCheckpoint(fileName, size, lastModified, 0, 0, 0, false));
+
+        if (!checkpoint.isCompleted()) {
+            long startTime = System.currentTimeMillis();
+            if (checkpoint.getInputOffset() > 0) {
+                log.info("Resuming {} at offset {} after {} records", fileName, checkpoint.getInputOffset(), checkpoint.getRecords());
+            }
+
+            long skipped;
+            try (MappedRecordReader reader = new MappedRecordReader(file, checkpoint.getInputOffset());
+                 ClassificationSink sink = openSink(fileName, format, checkpoint)) {
+                RecordParser parser = format.newParser();
+                while (reader.hasRemaining()) {
+                    List<Transaction> chunk = new ArrayList<>(chunkSize);
+                    reader.readChunk(parser, chunk, chunkSize);
+                    classify(chunk, customerId);
+                    checkpoint.setInputOffset(reader.position());
+                    checkpoint.setRecords(checkpoint.getRecords() + chunk.size());
+                    sink.write(chunk, checkpoint);
+                }
+                skipped = reader.skippedRecords();
+            }
+
+            checkpoint.setCompleted(true);
+            checkpointRepo.save(checkpoint);
+            log.info("Classified {} records of {} for customer {} in {} ms ({} malformed records skipped)",
+                    checkpoint.getRecords(), fileName, customerId, System.currentTimeMillis() - startTime, skipped);
+        }
+        moveTo(file, PROCESSED_DIR);
+    }
+
+    private ClassificationSink openSink(String fileName, RecordFormat format, BulkJobCheckpoint checkpoint) throws IOException {
+        if ("db".equalsIgnoreCase(sinkType)) {
+            return new DatabaseClassificationSink(new TransactionTemplate(transactionManager), txRepo, checkpointRepo);
+        }
+        String baseName = fileName.substring(0, fileName.length() - format.getExtension().length());
+        Path output = outputDir.resolve(baseName + ".classified" + format.getExtension());
+        return new FileClassificationSink(output, format, checkpoint, checkpointRepo);
+    }
+
+    /**
+     * Classify a chunk by splitting it into one slice per classification thread.
+     */
+    private void classify(List<Transaction> chunk, String customerId) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int sliceSize = (chunk.size() + parallelism - 1) / parallelism;
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<Transaction> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            futures.add(executor.submit(() -> ruleEngineService.processTransactions(slice, customerId)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while classifying chunk", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error classifying chunk for customer " + customerId, e.getCause());
+        }
+    }
+
+    private void moveTo(Path file, String directory) throws IOException {
+        Path target = inputDir.resolve(directory);
+        Files.createDirectories(target);
+        Files.move(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
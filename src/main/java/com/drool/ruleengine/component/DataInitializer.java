@@ -4,6 +4,7 @@ import com.drool.ruleengine.model.Category;
 import com.drool.ruleengine.model.Rule;
 import com.drool.ruleengine.repository.CategoryRepository;
 import com.drool.ruleengine.repository.RuleRepository;
+import com.drool.ruleengine.service.RuleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -13,12 +14,13 @@ import org.springframework.stereotype.Component;
 public class DataInitializer implements CommandLineRunner {
     private final CategoryRepository categoryRepo;
     private final RuleRepository ruleRepo;
+    private final RuleService ruleService;
 
     @Override
     public void run(String... args) {
         Category electronics = categoryRepo.save(new Category(null, "High Electronics", "Expensive electronics purchases"));
 
-        ruleRepo.save(new Rule(null, "HighElectro",
+        ruleService.saveRule(new Rule(null, "HighElectro",
                 "amount > 500 && merchantType == \"ELECTRONICS\"",
                 10, true, "cust01", electronics));
 
@@ -0,0 +1,24 @@
+package com.drool.ruleengine.config;
+
+import com.drool.ruleengine.service.InProcessRuleChangeNotifier;
+import com.drool.ruleengine.service.RuleChangeNotifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for propagating rule changes between nodes.
+ * Register a custom {@link RuleChangeNotifier} bean to push changes through
+ * a message broker instead of relying on version table polling alone.
+ */
+@Configuration
+@EnableScheduling
+public class RuleSyncConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(RuleChangeNotifier.class)
+    public RuleChangeNotifier ruleChangeNotifier() {
+        return new InProcessRuleChangeNotifier();
+    }
+}
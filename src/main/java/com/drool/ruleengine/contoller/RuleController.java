@@ -0,0 +1,32 @@
+package com.drool.ruleengine.contoller;
+
+import com.drool.ruleengine.model.Rule;
+import com.drool.ruleengine.service.RuleEngineService;
+import com.drool.ruleengine.service.RuleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/rules")
+public class RuleController {
+    private final RuleService ruleService;
+    private final RuleEngineService ruleEngineService;
+
+    @GetMapping
+    public List<Rule> getRules(@RequestParam String customerId) {
+        return ruleEngineService.getRulesForCustomer(customerId);
+    }
+
+    @PostMapping
+    public Rule saveRule(@RequestBody Rule rule) {
+        return ruleService.saveRule(rule);
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteRule(@PathVariable Long id) {
+        ruleService.deleteRule(id);
+    }
+}
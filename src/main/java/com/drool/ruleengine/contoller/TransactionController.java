@@ -1,5 +1,6 @@
 package com.drool.ruleengine.contoller;
 
+import com.drool.ruleengine.admission.AdmissionController;
 import com.drool.ruleengine.model.Transaction;
 import com.drool.ruleengine.repository.TransactionRepository;
 import com.drool.ruleengine.service.RuleEngineService;
@@ -14,14 +15,18 @@ import java.util.List;
 public class TransactionController {
     private final RuleEngineService ruleEngineService;
     private final TransactionRepository txRepo;
+    private final AdmissionController admissionController;
 
     @PostMapping("/classify")
     public Transaction classify(@RequestBody Transaction tx, @RequestParam String customerId) {
-        // Process the transaction using the rule engine
-        Transaction processedTx = ruleEngineService.processTransaction(tx, customerId);
-        
-        // Save the transaction with the updated category
-        return txRepo.save(processedTx);
+        // Hold the admission permit while the transaction is processed and saved
+        try (AdmissionController.Permit permit = admissionController.acquire(customerId, 1)) {
+            // Process the transaction using the rule engine
+            Transaction processedTx = ruleEngineService.processTransaction(tx, customerId);
+            
+            // Save the transaction with the updated category
+            return txRepo.save(processedTx);
+        }
     }
     
     /**
@@ -29,10 +34,13 @@ public class TransactionController {
      */
     @PostMapping("/classify-batch")
     public List<Transaction> classifyBatch(@RequestBody List<Transaction> transactions, @RequestParam String customerId) {
-        // Process all transactions using the rule engine
-        List<Transaction> processedTransactions = ruleEngineService.processTransactions(transactions, customerId);
-        
-        // Save all transactions
-        return txRepo.saveAll(processedTransactions);
+        // Batches cost one token per transaction in the customer's rate limit
+        try (AdmissionController.Permit permit = admissionController.acquire(customerId, transactions.size())) {
+            // Process all transactions using the rule engine
+            List<Transaction> processedTransactions = ruleEngineService.processTransactions(transactions, customerId);
+            
+            // Save all transactions
+            return txRepo.saveAll(processedTransactions);
+        }
     }
 }
@@ -0,0 +1,27 @@
+package com.drool.ruleengine.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Progress of a spool file bulk classification job.
+ * The file size and modification time identify the file so that a new file
+ * arriving under the same name is not mistaken for a resumed one.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJobCheckpoint {
+    @Id
+    private String fileName;
+    private long fileSize;
+    private long lastModified;
+    private long inputOffset;
+    private long outputOffset;
+    private long records;
+    private boolean completed;
+}
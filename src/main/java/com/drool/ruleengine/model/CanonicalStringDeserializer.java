@@ -0,0 +1,71 @@
+package com.drool.ruleengine.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Deserializes low-cardinality string fields such as merchant types and locations
+ * to canonical String instances.
+ *
+ * The value is looked up straight from the parser's character buffer, so a value
+ * seen before resolves to the same String without allocating a new one for every
+ * request. Each thread has its own direct-mapped cache; a value evicted by a
+ * colliding one is simply created again.
+ */
+public class CanonicalStringDeserializer extends StdScalarDeserializer<String> {
+    private static final int CACHE_SIZE = 1024;
+    // Longer values are unlikely to repeat and are not cached
+    private static final int MAX_CACHED_LENGTH = 64;
+
+    private static final ThreadLocal<Cache> CACHE = ThreadLocal.withInitial(Cache::new);
+
+    public CanonicalStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (!p.hasToken(JsonToken.VALUE_STRING) || p.getTextLength() > MAX_CACHED_LENGTH) {
+            return StringDeserializer.instance.deserialize(p, ctxt);
+        }
+        return CACHE.get().get(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+    }
+
+    private static final class Cache {
+        private final char[][] keys = new char[CACHE_SIZE][];
+        private final String[] values = new String[CACHE_SIZE];
+
+        String get(char[] text, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + text[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+            char[] key = keys[slot];
+            if (key != null && matches(key, text, offset, length)) {
+                return values[slot];
+            }
+            String value = new String(text, offset, length);
+            keys[slot] = value.toCharArray();
+            values[slot] = value;
+            return value;
+        }
+
+        private static boolean matches(char[] key, char[] text, int offset, int length) {
+            if (key.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != text[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.drool.ruleengine.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
@@ -27,4 +30,31 @@ public class Rule {
 
     @ManyToOne(fetch = jakarta.persistence.FetchType.EAGER)
     private Category category;
-}
\ No newline at end of file
+
+    /**
+     * Optional window aggregate. When set, the rule matches a transaction only if
+     * the aggregate over the customer's transactions matching {@link #drlCondition}
+     * in the last {@link #windowSeconds}, including the current one, is greater than
+     * {@link #windowThreshold}. For example COUNT over 600 seconds with threshold 5
+     * means "more than 5 such transactions in 10 minutes".
+     * 
+     * The {@link #drlCondition} of a windowed rule is evaluated as a SpEL expression
+     * by {@code WindowAggregator} with either engine, so it is limited to the
+     * simple comparisons and {@code &&}/{@code ||} that {@code DrlToSpelConverter}
+     * translates. Drools-only syntax such as {@code in (...)} or {@code matches}
+     * fails for every transaction and the rule never fires.
+     */
+    @Enumerated(EnumType.STRING)
+    private WindowFunction windowFunction;
+    private Integer windowSeconds;
+    private Double windowThreshold;
+
+    public Rule(Long id, String name, String drlCondition, int priority, boolean isActive, String customerId, Category category) {
+        this(id, name, drlCondition, priority, isActive, customerId, category, null, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isWindowed() {
+        return windowFunction != null && windowSeconds != null && windowThreshold != null;
+    }
+}
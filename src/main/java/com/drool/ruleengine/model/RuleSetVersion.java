@@ -0,0 +1,23 @@
+package com.drool.ruleengine.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-customer ruleset version shared by every node through the datasource.
+ * The version is bumped whenever a customer's rules are edited so that other
+ * nodes can detect the change and rebuild only that customer's rule base.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleSetVersion {
+    @Id
+    private String customerId;
+    private long version;
+    private long updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.drool.ruleengine.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
@@ -15,8 +16,10 @@ public class Transaction {
     @Id @GeneratedValue
     private Long id;
     private String merchant;
+    @JsonDeserialize(using = CanonicalStringDeserializer.class)
     private String merchantType;
     private double amount;
+    @JsonDeserialize(using = CanonicalStringDeserializer.class)
     private String location;
     private String category;
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.drool.ruleengine.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Arrays;
+
+/**
+ * Hot-path representation of a transaction evaluated by the rule engines.
+ * 
+ * Instances are pooled and reused between requests; the engines copy each
+ * {@link Transaction} into a fact and copy the category back, so the entity
+ * itself is still created for every transaction. The low-cardinality fields
+ * {@code merchantType} and {@code location} are dictionary-encoded: they hold the
+ * String value and an int code so that equality constraints against rule
+ * constants compare ints instead of strings.
+ * Values that no rule refers to have the code {@link #UNKNOWN_CODE}.
+ * 
+ * Windowed rules read their window aggregate through {@link #aggregate(long)}.
+ */
+@Getter
+@Setter
+@ToString
+public class TransactionFact {
+    public static final int UNKNOWN_CODE = -1;
+
+    private String merchant;
+    private String merchantType;
+    private int merchantTypeCode = UNKNOWN_CODE;
+    private double amount;
+    private String location;
+    private int locationCode = UNKNOWN_CODE;
+    private String category;
+
+    // Window aggregates by rule ID, for the windowed rules of the customer
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private long[] aggregateRuleIds = new long[4];
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private double[] aggregateValues = new double[4];
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int aggregateCount;
+
+    /**
+     * Clear all fields so the instance can be reused.
+     */
+    public void reset() {
+        merchant = null;
+        merchantType = null;
+        merchantTypeCode = UNKNOWN_CODE;
+        amount = 0;
+        location = null;
+        locationCode = UNKNOWN_CODE;
+        category = null;
+        aggregateCount = 0;
+    }
+
+    /**
+     * Get the window aggregate of a windowed rule.
+     * 
+     * @param ruleId The ID of the windowed rule
+     * @return The aggregate including this transaction, or NaN if the transaction
+     *         does not match the rule condition, so comparisons are always false
+     */
+    public double aggregate(long ruleId) {
+        for (int i = 0; i < aggregateCount; i++) {
+            if (aggregateRuleIds[i] == ruleId) {
+                return aggregateValues[i];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Set the window aggregate of a windowed rule.
+     * 
+     * @param ruleId The ID of the windowed rule
+     * @param value The aggregate including this transaction
+     */
+    public void setAggregate(long ruleId, double value) {
+        if (aggregateCount == aggregateRuleIds.length) {
+            aggregateRuleIds = Arrays.copyOf(aggregateRuleIds, aggregateCount * 2);
+            aggregateValues = Arrays.copyOf(aggregateValues, aggregateCount * 2);
+        }
+        aggregateRuleIds[aggregateCount] = ruleId;
+        aggregateValues[aggregateCount] = value;
+        aggregateCount++;
+    }
+}
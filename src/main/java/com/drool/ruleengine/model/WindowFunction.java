@@ -0,0 +1,11 @@
+package com.drool.ruleengine.model;
+
+/**
+ * Aggregate functions available to windowed rules.
+ */
+public enum WindowFunction {
+    /** Number of matching transactions in the window */
+    COUNT,
+    /** Total amount of matching transactions in the window */
+    SUM
+}
@@ -0,0 +1,8 @@
+package com.drool.ruleengine.repository;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BulkJobCheckpointRepository extends JpaRepository<BulkJobCheckpoint, String> {}
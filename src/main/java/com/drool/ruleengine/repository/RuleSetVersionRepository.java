@@ -0,0 +1,30 @@
+package com.drool.ruleengine.repository;
+
+import com.drool.ruleengine.model.RuleSetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RuleSetVersionRepository extends JpaRepository<RuleSetVersion, String> {
+    List<RuleSetVersion> findByCustomerIdIn(Collection<String> customerIds);
+
+    @Query("select v.version from RuleSetVersion v where v.customerId = :customerId")
+    Optional<Long> findVersion(@Param("customerId") String customerId);
+
+    @Modifying
+    @Query("update RuleSetVersion v set v.version = v.version + 1, v.updatedAt = :now where v.customerId = :customerId")
+    int incrementVersion(@Param("customerId") String customerId, @Param("now") long now);
+
+    // Plain insert; unlike save it fails instead of overwriting a row created concurrently
+    @Modifying
+    @Query(value = "insert into rule_set_version (customer_id, version, updated_at) values (:customerId, 0, :now)",
+            nativeQuery = true)
+    int insertVersion(@Param("customerId") String customerId, @Param("now") long now);
+}
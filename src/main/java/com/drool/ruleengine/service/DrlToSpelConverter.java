@@ -0,0 +1,38 @@
+package com.drool.ruleengine.service;
+
+/**
+ * Converts Drools constraint syntax to Spring Expression Language (SpEL) syntax.
+ */
+final class DrlToSpelConverter {
+
+    private DrlToSpelConverter() {
+    }
+
+    /**
+     * Convert Drools syntax to SpEL syntax.
+     * This is a simplified conversion and may not handle all Drools syntax.
+     * 
+     * @param droolsExpression The Drools expression
+     * @return The SpEL expression
+     */
+    static String convert(String droolsExpression) {
+        // This is a simplified conversion that handles basic conditions
+        // In a real implementation, you would need a more sophisticated parser
+        
+        // Replace common operators
+        String spel = droolsExpression
+                .replace(" == ", " eq ")
+                .replace(" != ", " ne ")
+                .replace(" > ", " gt ")
+                .replace(" < ", " lt ")
+                .replace(" >= ", " ge ")
+                .replace(" <= ", " le ")
+                .replace(" && ", " and ")
+                .replace(" || ", " or ");
+        
+        // Handle contains for strings
+        spel = spel.replaceAll("(\\w+)\\.contains\\(([^)]+)\\)", "$2.contains($1)");
+        
+        return spel;
+    }
+}
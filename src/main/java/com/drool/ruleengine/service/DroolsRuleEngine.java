@@ -2,6 +2,7 @@ package com.drool.ruleengine.service;
 
 import com.drool.ruleengine.model.Rule;
 import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.model.TransactionFact;
 import com.drool.ruleengine.repository.RuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,44 +27,87 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class DroolsRuleEngine implements RuleEngine {
     private final RuleRepository ruleRepo;
+    private final RuleSetVersionService ruleVersions;
+    private final FactDictionary factDictionary;
+    private final WindowAggregator windowAggregator;
     
-    // Cache for KieSessions by customerId
-    private final Map<String, KieContainer> kieContainerCache = new ConcurrentHashMap<>();
+    // Reusable facts evaluated in place of the Transaction entities
+    private final TransactionFactPool factPool = new TransactionFactPool();
+    
+    // Cache for KieContainers by customerId
+    private final Map<String, CompiledRules> kieContainerCache = new ConcurrentHashMap<>();
     // Cache for last rule update timestamp by customerId
     private final Map<String, Long> ruleUpdateTimestamps = new ConcurrentHashMap<>();
 
+    // KieContainer with the ruleset version that was current when its rules were loaded
+    private record CompiledRules(KieContainer container, long version) {
+    }
+
     @Override
     public Transaction processTransaction(Transaction transaction, String customerId) {
-        KieSession session = getSessionWithRules(customerId);
+        // Build the session first so the constants of new rules are encoded before the fact is loaded
+        long version = ruleVersions.track(customerId);
+        List<Rule> rules = getRulesForCustomer(customerId);
+        KieSession session = getSessionWithRules(customerId, version, rules);
+        TransactionFact fact = factPool.acquire();
         try {
-            session.insert(transaction);
+            factDictionary.load(transaction, fact);
+            windowAggregator.apply(customerId, rules, fact);
+            session.insert(fact);
             session.fireAllRules();
-            return transaction;
         } finally {
             session.dispose();
         }
+        factDictionary.store(fact, transaction);
+        return transaction;
     }
 
     @Override
     public List<Transaction> processTransactions(List<Transaction> transactions, String customerId) {
-        KieSession session = getSessionWithRules(customerId);
+        long version = ruleVersions.track(customerId);
+        List<Rule> rules = getRulesForCustomer(customerId);
+        KieSession session = getSessionWithRules(customerId, version, rules);
+        List<TransactionFact> facts = factPool.acquire(transactions.size());
         try {
-            for (Transaction tx : transactions) {
-                session.insert(tx);
+            for (int i = 0; i < transactions.size(); i++) {
+                factDictionary.load(transactions.get(i), facts.get(i));
+                windowAggregator.apply(customerId, rules, facts.get(i));
+                session.insert(facts.get(i));
             }
             session.fireAllRules();
-            return transactions;
         } finally {
             session.dispose();
         }
+        for (int i = 0; i < transactions.size(); i++) {
+            factDictionary.store(facts.get(i), transactions.get(i));
+        }
+        return transactions;
     }
 
     @Override
     @Cacheable(value = "customerRules", key = "#customerId")
     public List<Rule> getRulesForCustomer(String customerId) {
+        // Record the ruleset version before loading so later edits are detected
+        ruleVersions.track(customerId);
         return ruleRepo.findByCustomerId(customerId);
     }
 
+    @Override
+    public void invalidateRules(String customerId) {
+        kieContainerCache.remove(customerId);
+        ruleUpdateTimestamps.remove(customerId);
+    }
+
+    @Override
+    public boolean needsCompile(String customerId) {
+        return !kieContainerCache.containsKey(customerId);
+    }
+
+    @Override
+    public boolean hasCompiledRules(String customerId) {
+        return kieContainerCache.containsKey(customerId);
+    }
+
     /**
      * Generates DRL content from a list of rules
      * Optimized for performance with StringBuilder capacity pre-allocation
@@ -76,7 +120,7 @@ public class DroolsRuleEngine implements RuleEngine {
         
         // Add package and imports
         drl.append("package com.rules;\n");
-        drl.append("import com.drool.ruleengine.model.Transaction;\n\n");
+        drl.append("import com.drool.ruleengine.model.TransactionFact;\n\n");
         
         // Filter active rules first to avoid checking in the loop
         rules.stream()
@@ -85,7 +129,10 @@ public class DroolsRuleEngine implements RuleEngine {
                 drl.append("rule \"").append(r.getCustomerId()).append("-").append(r.getName()).append("\"\n")
                    .append("    salience ").append(r.getPriority()).append("\n")
                    .append("    when\n")
-                   .append("        t : Transaction(").append(r.getDrlCondition()).append(")\n")
+                   .append("        t : TransactionFact(").append(factDictionary.encodeCondition(windowAggregator.engineCondition(r))).append(")")
+                   // Drools cannot tell which properties aggregate(..) reads, so the pattern would be
+                   // re-evaluated by every update(t) and the rule would activate itself forever
+                   .append(r.isWindowed() ? " @watch(!category)" : "").append("\n")
                    .append("    then\n")
                    .append("        t.setCategory(\"").append(r.getCategory().getName()).append("\");\n")
                    .append("        update(t);\n")
@@ -103,16 +150,24 @@ public class DroolsRuleEngine implements RuleEngine {
      * @return KieSession for the customer
      */
     public KieSession getSessionWithRules(String customerId) {
+        long version = ruleVersions.track(customerId);
+        return getSessionWithRules(customerId, version, getRulesForCustomer(customerId));
+    }
+    
+    /**
+     * Builds a KieSession from rules that were loaded at the given ruleset version.
+     * The compiled container is only cached while that version is still current, so
+     * a compile racing with a rule change cannot leave stale rules in the cache.
+     */
+    private KieSession getSessionWithRules(String customerId, long version, List<Rule> rules) {
         long startTime = System.currentTimeMillis();
         log.debug("Starting getSessionWithRules for customer: {}", customerId);
         
         try {
             // Check if we have a cached KieContainer for this customer
-            KieContainer kieContainer = kieContainerCache.get(customerId);
-            boolean cacheHit = kieContainer != null;
+            CompiledRules compiled = kieContainerCache.get(customerId);
+            boolean cacheHit = compiled != null;
             
-            // Get the rules for this customer (this call is cached via @Cacheable)
-            List<Rule> rules = getRulesForCustomer(customerId);
             log.debug("Found {} rules for customer: {}", rules.size(), customerId);
             
             // If no cached container or rules have been updated, rebuild
@@ -130,18 +185,24 @@ public class DroolsRuleEngine implements RuleEngine {
                         ks.getResources().newByteArrayResource(drlContent.getBytes(StandardCharsets.UTF_8)));
                 
                 KieBuilder kb = ks.newKieBuilder(kfs).buildAll();
-                kieContainer = ks.newKieContainer(ks.getRepository().getDefaultReleaseId());
+                KieContainer kieContainer = ks.newKieContainer(ks.getRepository().getDefaultReleaseId());
                 log.debug("KieContainer build took: {} ms", System.currentTimeMillis() - buildStartTime);
                 
-                // Update the cache
-                kieContainerCache.put(customerId, kieContainer);
+                // Update the cache, then drop the entry again if the ruleset changed meanwhile;
+                // an invalidation after the re-check removes the entry itself
+                compiled = new CompiledRules(kieContainer, version);
+                kieContainerCache.put(customerId, compiled);
                 updateRuleTimestamp(customerId);
+                if (!ruleVersions.isCurrent(customerId, version)) {
+                    log.debug("Ruleset of customer {} changed during compile, not caching version {}", customerId, version);
+                    kieContainerCache.remove(customerId, compiled);
+                }
             } else {
                 log.debug("Using cached KieContainer for customer: {}", customerId);
             }
             
             // Create a new session from the cached container
-            KieSession session = kieContainer.newKieSession();
+            KieSession session = compiled.container().newKieSession();
             log.debug("KieSession created for customer: {}", customerId);
             return session;
         } finally {
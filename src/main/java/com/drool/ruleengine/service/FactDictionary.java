@@ -0,0 +1,92 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.CanonicalStringDeserializer;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.model.TransactionFact;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dictionary encoding of the low-cardinality transaction fields.
+ * 
+ * Codes are only assigned to constants found in rule conditions, so the dictionary
+ * is bounded by the size of the rule base. Fact values are looked up but never added:
+ * a value no rule refers to cannot satisfy an equality constraint and gets
+ * {@link TransactionFact#UNKNOWN_CODE}.
+ * 
+ * The field values themselves are already canonical String instances when the
+ * request body is deserialized, see {@link CanonicalStringDeserializer}.
+ */
+@Component
+public class FactDictionary {
+    // Equality constraints on encoded fields against plain string literals, e.g. merchantType == "ELECTRONICS"
+    private static final Pattern ENCODABLE_CONSTRAINT =
+            Pattern.compile("\\b(merchantType|location)\\s*(==|!=)\\s*\"([^\"\\\\]*)\"");
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCode = new AtomicInteger();
+
+    /**
+     * Get the code of a rule constant, assigning one if the constant is new.
+     * 
+     * @param value The constant
+     * @return The code of the constant
+     */
+    public int encode(String value) {
+        return codes.computeIfAbsent(value, v -> nextCode.getAndIncrement());
+    }
+
+    /**
+     * Rewrite string equality constraints on encoded fields into int comparisons,
+     * e.g. {@code merchantType == "ELECTRONICS"} becomes {@code merchantTypeCode == 3}.
+     * Other constraints are left unchanged.
+     * 
+     * @param condition The rule condition
+     * @return The condition with encoded constraints
+     */
+    public String encodeCondition(String condition) {
+        Matcher matcher = ENCODABLE_CONSTRAINT.matcher(condition);
+        StringBuilder encoded = new StringBuilder(condition.length());
+        while (matcher.find()) {
+            matcher.appendReplacement(encoded, matcher.group(1) + "Code " + matcher.group(2) + " " + encode(matcher.group(3)));
+        }
+        matcher.appendTail(encoded);
+        return encoded.toString();
+    }
+
+    /**
+     * Copy a transaction into a fact and look up the codes of its encoded fields.
+     * 
+     * @param transaction The transaction to copy
+     * @param fact The fact to fill
+     */
+    public void load(Transaction transaction, TransactionFact fact) {
+        fact.setMerchant(transaction.getMerchant());
+        fact.setAmount(transaction.getAmount());
+        fact.setCategory(transaction.getCategory());
+        fact.setMerchantType(transaction.getMerchantType());
+        fact.setMerchantTypeCode(lookup(transaction.getMerchantType()));
+        fact.setLocation(transaction.getLocation());
+        fact.setLocationCode(lookup(transaction.getLocation()));
+    }
+
+    /**
+     * Copy the rule results of a fact back to its transaction before persistence.
+     * 
+     * @param fact The evaluated fact
+     * @param transaction The transaction to update
+     */
+    public void store(TransactionFact fact, Transaction transaction) {
+        transaction.setCategory(fact.getCategory());
+    }
+
+    private int lookup(String value) {
+        Integer code = value == null ? null : codes.get(value);
+        return code != null ? code : TransactionFact.UNKNOWN_CODE;
+    }
+}
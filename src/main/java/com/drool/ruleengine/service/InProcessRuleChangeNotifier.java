@@ -0,0 +1,30 @@
+package com.drool.ruleengine.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Default notifier that delivers changes to listeners of the local node only.
+ */
+@Slf4j
+public class InProcessRuleChangeNotifier implements RuleChangeNotifier {
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String customerId, long version) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onRuleSetChanged(customerId, version);
+            } catch (Exception e) {
+                log.error("Error notifying rule change for customer {}: {}", customerId, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
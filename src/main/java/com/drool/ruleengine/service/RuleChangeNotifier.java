@@ -0,0 +1,30 @@
+package com.drool.ruleengine.service;
+
+/**
+ * Pluggable channel used to announce ruleset changes to other nodes.
+ * The default implementation only delivers to listeners in the same
+ * application context; nodes still pick up remote changes by polling the
+ * version table, so a broker-backed notifier only lowers propagation latency.
+ */
+public interface RuleChangeNotifier {
+
+    /**
+     * Announce that a customer's ruleset has moved to a new version.
+     *
+     * @param customerId The ID of the customer whose rules changed
+     * @param version The new ruleset version
+     */
+    void publish(String customerId, long version);
+
+    /**
+     * Register a listener for ruleset changes.
+     *
+     * @param listener The listener to notify
+     */
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void onRuleSetChanged(String customerId, long version);
+    }
+}
@@ -0,0 +1,87 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.RuleSetVersion;
+import com.drool.ruleengine.repository.RuleSetVersionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propagates ruleset changes between nodes. Polls the shared version table in
+ * batches for the customers loaded on this node and listens to the configured
+ * {@link RuleChangeNotifier}; only customers whose version moved are rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RuleChangeSynchronizer {
+    private final RuleSetVersionService ruleVersions;
+    private final RuleSetVersionRepository versionRepo;
+    private final RuleChangeNotifier notifier;
+    private final CacheManager cacheManager;
+    private final List<RuleEngine> ruleEngines;
+
+    @Value("${ruleengine.sync.enabled:true}")
+    private boolean pollingEnabled;
+
+    @Value("${ruleengine.sync.batch-size:500}")
+    private int batchSize;
+
+    @PostConstruct
+    void subscribe() {
+        notifier.subscribe(this::onRuleSetChanged);
+    }
+
+    /**
+     * Compare the versions of all tracked customers with the version table.
+     * Customers whose rules are neither cached nor compiled any more are no longer tracked.
+     */
+    @Scheduled(fixedDelayString = "${ruleengine.sync.poll-interval-ms:5000}")
+    public void poll() {
+        if (!pollingEnabled) {
+            return;
+        }
+        Cache cache = cacheManager.getCache("customerRules");
+        List<String> forgotten = ruleVersions.forgetIdle(id -> (cache != null && cache.get(id) != null)
+                || ruleEngines.stream().anyMatch(ruleEngine -> ruleEngine.hasCompiledRules(id)));
+        if (!forgotten.isEmpty()) {
+            log.debug("Stopped tracking {} customers without loaded rules", forgotten.size());
+        }
+        List<String> customerIds = new ArrayList<>(ruleVersions.trackedCustomers());
+        for (int from = 0; from < customerIds.size(); from += batchSize) {
+            List<String> batch = customerIds.subList(from, Math.min(from + batchSize, customerIds.size()));
+            for (RuleSetVersion version : versionRepo.findByCustomerIdIn(batch)) {
+                onRuleSetChanged(version.getCustomerId(), version.getVersion());
+            }
+        }
+    }
+
+    /**
+     * Invalidate the cached rules of a customer if the given version is newer
+     * than the one this node has loaded.
+     *
+     * @param customerId The ID of the customer
+     * @param version The ruleset version
+     */
+    public void onRuleSetChanged(String customerId, long version) {
+        if (!ruleVersions.advance(customerId, version)) {
+            return;
+        }
+        log.info("Ruleset for customer {} changed to version {}, invalidating cached rules", customerId, version);
+        Cache cache = cacheManager.getCache("customerRules");
+        if (cache != null) {
+            cache.evict(customerId);
+        }
+        for (RuleEngine ruleEngine : ruleEngines) {
+            ruleEngine.invalidateRules(customerId);
+        }
+    }
+}
@@ -37,4 +37,33 @@ public interface RuleEngine {
      * @return List of rules for the customer
      */
     List<Rule> getRulesForCustomer(String customerId);
+    
+    /**
+     * Drop any compiled state held for a customer so that the next request
+     * rebuilds it from the current rules.
+     * 
+     * @param customerId The ID of the customer whose rules changed
+     */
+    default void invalidateRules(String customerId) {
+    }
+    
+    /**
+     * Check whether the next request of a customer has to compile its rules first.
+     * 
+     * @param customerId The ID of the customer
+     * @return true if no compiled rules are cached for the customer
+     */
+    default boolean needsCompile(String customerId) {
+        return false;
+    }
+    
+    /**
+     * Check whether compiled rules of a customer are held by this engine.
+     * 
+     * @param customerId The ID of the customer
+     * @return true if the engine caches compiled rules for the customer
+     */
+    default boolean hasCompiledRules(String customerId) {
+        return false;
+    }
 }
\ No newline at end of file
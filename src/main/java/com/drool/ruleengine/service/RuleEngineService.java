@@ -51,6 +51,16 @@ public class RuleEngineService {
         return ruleEngine.getRulesForCustomer(customerId);
     }
     
+    /**
+     * Check whether the next request of a customer has to compile its rules first.
+     * 
+     * @param customerId The ID of the customer
+     * @return true if no compiled rules are cached for the customer
+     */
+    public boolean needsCompile(String customerId) {
+        return ruleEngine.needsCompile(customerId);
+    }
+    
     /**
      * For backward compatibility with existing code.
      * This method will be deprecated in future versions.
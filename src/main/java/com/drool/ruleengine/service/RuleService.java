@@ -0,0 +1,52 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.Rule;
+import com.drool.ruleengine.repository.RuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for editing customer rules.
+ * Every edit bumps the customer's ruleset version in the same transaction so
+ * that all nodes rebuild the customer's rules.
+ */
+@Service
+@RequiredArgsConstructor
+public class RuleService {
+    private final RuleRepository ruleRepo;
+    private final RuleSetVersionService ruleVersions;
+
+    /**
+     * Create or update a rule.
+     * 
+     * @param rule The rule to save
+     * @return The saved rule
+     */
+    @Transactional
+    public Rule saveRule(Rule rule) {
+        if (rule.getId() != null) {
+            // A rule moved to another customer changes the previous customer's ruleset too
+            ruleRepo.findById(rule.getId())
+                    .map(Rule::getCustomerId)
+                    .filter(previous -> !previous.equals(rule.getCustomerId()))
+                    .ifPresent(ruleVersions::bump);
+        }
+        Rule saved = ruleRepo.save(rule);
+        ruleVersions.bump(saved.getCustomerId());
+        return saved;
+    }
+
+    /**
+     * Delete a rule.
+     * 
+     * @param ruleId The ID of the rule to delete
+     */
+    @Transactional
+    public void deleteRule(Long ruleId) {
+        ruleRepo.findById(ruleId).ifPresent(rule -> {
+            ruleRepo.delete(rule);
+            ruleVersions.bump(rule.getCustomerId());
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.repository.RuleSetVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of the ruleset versions this node has loaded and bumps versions
+ * in the shared version table when rules are edited.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuleSetVersionService {
+    private final RuleSetVersionRepository versionRepo;
+    private final RuleChangeNotifier notifier;
+    private final PlatformTransactionManager transactionManager;
+
+    // Ruleset version known to this node by customerId, only for customers whose rules were loaded
+    private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+    // Customers tracked since the last call to forgetIdle
+    private final Set<String> recentlyTracked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Record the current ruleset version of a customer before its rules are loaded.
+     * Reading the version first guarantees any later edit is seen as a newer version.
+     *
+     * @param customerId The ID of the customer
+     * @return The ruleset version the loaded rules are at least as new as
+     */
+    public long track(String customerId) {
+        recentlyTracked.add(customerId);
+        Long known = knownVersions.get(customerId);
+        if (known != null) {
+            return known;
+        }
+        long version = versionRepo.findVersion(customerId).orElse(0L);
+        known = knownVersions.putIfAbsent(customerId, version);
+        return known != null ? known : version;
+    }
+
+    /**
+     * Check that no newer ruleset version of a customer has been seen since
+     * rules were loaded at the given version.
+     *
+     * @param customerId The ID of the customer
+     * @param version The version returned by {@link #track(String)} before the rules were loaded
+     * @return true if the rules loaded at that version are still current
+     */
+    public boolean isCurrent(String customerId, long version) {
+        Long known = knownVersions.get(customerId);
+        return known != null && known == version;
+    }
+
+    /**
+     * Move the known version of a customer forward.
+     *
+     * @param customerId The ID of the customer
+     * @param version The version observed in the version table or from the notifier
+     * @return true if the version is newer than the one this node had loaded
+     */
+    public boolean advance(String customerId, long version) {
+        while (true) {
+            Long previous = knownVersions.get(customerId);
+            if (previous == null || version <= previous) {
+                return false;
+            }
+            if (knownVersions.replace(customerId, previous, version)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return The customers whose rules have been loaded on this node
+     */
+    public Set<String> trackedCustomers() {
+        return knownVersions.keySet();
+    }
+
+    /**
+     * Stop tracking customers whose rules are no longer loaded and that have not
+     * been tracked since the previous call, so that a load in progress is never
+     * mistaken for an unloaded customer. A forgotten customer is tracked again,
+     * at the then current version, when its rules are next loaded.
+     *
+     * @param loaded Tells whether the rules of a customer are still loaded
+     * @return The customers no longer tracked
+     */
+    public List<String> forgetIdle(Predicate<String> loaded) {
+        List<String> forgotten = new ArrayList<>();
+        for (String customerId : knownVersions.keySet()) {
+            if (recentlyTracked.remove(customerId) || loaded.test(customerId)) {
+                continue;
+            }
+            Long version = knownVersions.remove(customerId);
+            if (version != null && recentlyTracked.contains(customerId)) {
+                // Tracked again meanwhile; keep the older version so a newer one is still detected
+                knownVersions.merge(customerId, version, Math::min);
+            } else if (version != null) {
+                forgotten.add(customerId);
+            }
+        }
+        return forgotten;
+    }
+
+    /**
+     * Increment the ruleset version of a customer. Other nodes are notified
+     * once the surrounding transaction commits.
+     *
+     * @param customerId The ID of the customer whose rules changed
+     * @return The new ruleset version
+     */
+    @Transactional
+    public long bump(String customerId) {
+        long now = System.currentTimeMillis();
+        if (versionRepo.incrementVersion(customerId, now) == 0) {
+            createVersion(customerId, now);
+            versionRepo.incrementVersion(customerId, now);
+        }
+        long version = versionRepo.findVersion(customerId).orElseThrow();
+        log.debug("Ruleset version for customer {} bumped to {}", customerId, version);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifier.publish(customerId, version);
+                }
+            });
+        } else {
+            notifier.publish(customerId, version);
+        }
+        return version;
+    }
+
+    /**
+     * Insert version 0 for a customer in its own transaction. When another node or
+     * request inserts the row first the insert fails, and the row exists either way.
+     */
+    private void createVersion(String customerId, long now) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transactionTemplate.executeWithoutResult(status -> versionRepo.insertVersion(customerId, now));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Ruleset version for customer {} was created concurrently", customerId);
+        }
+    }
+}
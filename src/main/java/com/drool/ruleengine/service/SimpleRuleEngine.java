@@ -2,6 +2,7 @@ package com.drool.ruleengine.service;
 
 import com.drool.ruleengine.model.Rule;
 import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.model.TransactionFact;
 import com.drool.ruleengine.repository.RuleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +28,14 @@ import java.util.concurrent.ConcurrentHashMap;
 @Slf4j
 public class SimpleRuleEngine implements RuleEngine {
     private final RuleRepository ruleRepo;
+    private final RuleSetVersionService ruleVersions;
+    private final FactDictionary factDictionary;
+    private final WindowAggregator windowAggregator;
     
-    // Cache for compiled expressions
+    // Reusable facts evaluated in place of the Transaction entities
+    private final TransactionFactPool factPool = new TransactionFactPool();
+    
+    // Cache for compiled expressions by rule condition
     private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
     
     // Parser for SpEL expressions
@@ -40,9 +47,14 @@ public class SimpleRuleEngine implements RuleEngine {
         
         // Get rules for this customer
         List<Rule> rules = getRulesForCustomer(customerId);
+        compileRules(rules);
         
-        // Apply rules to the transaction
-        applyRules(transaction, rules);
+        // Apply rules to a pooled fact and copy the result back
+        TransactionFact fact = factPool.acquire();
+        factDictionary.load(transaction, fact);
+        windowAggregator.apply(customerId, rules, fact);
+        applyRules(fact, rules);
+        factDictionary.store(fact, transaction);
         
         return transaction;
     }
@@ -53,10 +65,17 @@ public class SimpleRuleEngine implements RuleEngine {
         
         // Get rules for this customer
         List<Rule> rules = getRulesForCustomer(customerId);
+        compileRules(rules);
         
-        // Apply rules to each transaction
-        for (Transaction transaction : transactions) {
-            applyRules(transaction, rules);
+        // Apply rules to each transaction through a pooled fact
+        List<TransactionFact> facts = factPool.acquire(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            TransactionFact fact = facts.get(i);
+            factDictionary.load(transaction, fact);
+            windowAggregator.apply(customerId, rules, fact);
+            applyRules(fact, rules);
+            factDictionary.store(fact, transaction);
         }
         
         return transactions;
@@ -65,18 +84,39 @@ public class SimpleRuleEngine implements RuleEngine {
     @Override
     @Cacheable(value = "customerRules", key = "#customerId")
     public List<Rule> getRulesForCustomer(String customerId) {
+        // Record the ruleset version before loading so later edits are detected
+        ruleVersions.track(customerId);
         return ruleRepo.findByCustomerId(customerId);
     }
     
     /**
-     * Apply rules to a transaction.
+     * Compile the conditions of active rules before any fact is loaded, so that
+     * the constants of new rules are dictionary-encoded when facts look them up.
+     * 
+     * @param rules The rules to compile
+     */
+    private void compileRules(List<Rule> rules) {
+        for (Rule rule : rules) {
+            if (!rule.isActive()) {
+                continue;
+            }
+            try {
+                getOrCompileExpression(windowAggregator.engineCondition(rule));
+            } catch (Exception e) {
+                log.error("Error compiling rule '{}': {}", rule.getName(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Apply rules to a transaction fact.
      * 
-     * @param transaction The transaction to process
+     * @param fact The transaction fact to process
      * @param rules The rules to apply
      */
-    private void applyRules(Transaction transaction, List<Rule> rules) {
-        // Create evaluation context with the transaction
-        StandardEvaluationContext context = new StandardEvaluationContext(transaction);
+    private void applyRules(TransactionFact fact, List<Rule> rules) {
+        // Create evaluation context with the fact
+        StandardEvaluationContext context = new StandardEvaluationContext(fact);
         
         // Apply rules in priority order
         rules.stream()
@@ -85,15 +125,15 @@ public class SimpleRuleEngine implements RuleEngine {
             .forEach(rule -> {
                 try {
                     // Get or compile the expression
-                    Expression expression = getOrCompileExpression(rule.getDrlCondition());
+                    Expression expression = getOrCompileExpression(windowAggregator.engineCondition(rule));
                     
                     // Evaluate the condition
                     Boolean result = expression.getValue(context, Boolean.class);
                     
                     // If condition is true, set the category
                     if (Boolean.TRUE.equals(result)) {
-                        transaction.setCategory(rule.getCategory().getName());
-                        log.debug("Rule '{}' matched for transaction {}", rule.getName(), transaction.getId());
+                        fact.setCategory(rule.getCategory().getName());
+                        log.debug("Rule '{}' matched for merchant {}", rule.getName(), fact.getMerchant());
                         return; // Stop processing rules for this transaction
                     }
                 } catch (Exception e) {
@@ -105,42 +145,12 @@ public class SimpleRuleEngine implements RuleEngine {
     /**
      * Get a compiled expression from cache or compile it.
      * 
-     * @param spelExpression The SpEL expression string
+     * @param drlCondition The rule condition in Drools syntax
      * @return The compiled expression
      */
-    private Expression getOrCompileExpression(String spelExpression) {
-        // Convert Drools syntax to SpEL syntax
-        String spelConverted = convertDroolsToSpel(spelExpression);
-        
-        // Get from cache or compile
-        return expressionCache.computeIfAbsent(spelConverted, parser::parseExpression);
-    }
-    
-    /**
-     * Convert Drools syntax to SpEL syntax.
-     * This is a simplified conversion and may not handle all Drools syntax.
-     * 
-     * @param droolsExpression The Drools expression
-     * @return The SpEL expression
-     */
-    private String convertDroolsToSpel(String droolsExpression) {
-        // This is a simplified conversion that handles basic conditions
-        // In a real implementation, you would need a more sophisticated parser
-        
-        // Replace common operators
-        String spel = droolsExpression
-                .replace(" == ", " eq ")
-                .replace(" != ", " ne ")
-                .replace(" > ", " gt ")
-                .replace(" < ", " lt ")
-                .replace(" >= ", " ge ")
-                .replace(" <= ", " le ")
-                .replace(" && ", " and ")
-                .replace(" || ", " or ");
-        
-        // Handle contains for strings
-        spel = spel.replaceAll("(\\w+)\\.contains\\(([^)]+)\\)", "$2.contains($1)");
-        
-        return spel;
+    private Expression getOrCompileExpression(String drlCondition) {
+        // Encode string constraints and convert Drools syntax to SpEL syntax only on a cache miss
+        return expressionCache.computeIfAbsent(drlCondition,
+                condition -> parser.parseExpression(DrlToSpelConverter.convert(factDictionary.encodeCondition(condition))));
     }
 }
\ No newline at end of file
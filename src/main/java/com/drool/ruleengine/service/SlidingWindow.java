@@ -0,0 +1,94 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.WindowFunction;
+
+import java.util.Arrays;
+
+/**
+ * Incrementally maintained count and sum over a sliding time window.
+ * 
+ * The window is split into a fixed number of buckets; totals are updated when a
+ * value is added and when buckets fall out of the window, so memory is constant
+ * and nothing is recomputed. The window boundary is precise to one bucket,
+ * i.e. 1/{@value #BUCKETS} of the window length. Time never moves backwards in
+ * the window: a transaction stamped before the newest bucket, e.g. by a thread
+ * that stalled after reading the clock, is counted in the newest bucket.
+ */
+class SlidingWindow {
+    static final int BUCKETS = 60;
+
+    private final long bucketMillis;
+    // Bucket number held by each slot, bucket number = time / bucketMillis
+    private final long[] bucketIds = new long[BUCKETS];
+    private final long[] counts = new long[BUCKETS];
+    private final double[] sums = new double[BUCKETS];
+    private long totalCount;
+    private double totalSum;
+    // Buckets up to this number have been removed from the totals
+    private long evictedThrough = Long.MIN_VALUE;
+    private long newestBucket = Long.MIN_VALUE;
+
+    SlidingWindow(long windowMillis) {
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        Arrays.fill(bucketIds, Long.MIN_VALUE);
+    }
+
+    /**
+     * Add a transaction to the window and return the resulting aggregate.
+     * 
+     * @param nowMillis The current time
+     * @param amount The transaction amount
+     * @param function The aggregate to return
+     * @return The aggregate over the window including the added transaction
+     */
+    synchronized double addAndGet(long nowMillis, double amount, WindowFunction function) {
+        long bucket = Math.max(nowMillis / bucketMillis, newestBucket);
+        newestBucket = bucket;
+        evict(bucket);
+        int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+        if (bucketIds[slot] != bucket) {
+            // The slot is normally empty after eviction; never leave its values in the totals
+            totalCount -= counts[slot];
+            totalSum -= sums[slot];
+            bucketIds[slot] = bucket;
+            counts[slot] = 0;
+            sums[slot] = 0;
+        }
+        counts[slot]++;
+        sums[slot] += amount;
+        totalCount++;
+        totalSum += amount;
+        return function == WindowFunction.COUNT ? totalCount : totalSum;
+    }
+
+    /**
+     * Remove buckets that fell out of the window from the totals.
+     */
+    private void evict(long currentBucket) {
+        long oldestValid = currentBucket - BUCKETS + 1;
+        if (oldestValid <= evictedThrough + 1) {
+            return;
+        }
+        // After a gap of a whole window or more every slot is stale
+        if (evictedThrough == Long.MIN_VALUE || oldestValid - evictedThrough > BUCKETS) {
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+            Arrays.fill(counts, 0);
+            Arrays.fill(sums, 0);
+            totalCount = 0;
+            totalSum = 0;
+            evictedThrough = oldestValid - 1;
+            return;
+        }
+        for (long bucket = evictedThrough + 1; bucket < oldestValid; bucket++) {
+            int slot = (int) Math.floorMod(bucket, (long) BUCKETS);
+            if (bucketIds[slot] == bucket) {
+                totalCount -= counts[slot];
+                totalSum -= sums[slot];
+                bucketIds[slot] = Long.MIN_VALUE;
+                counts[slot] = 0;
+                sums[slot] = 0;
+            }
+        }
+        evictedThrough = oldestValid - 1;
+    }
+}
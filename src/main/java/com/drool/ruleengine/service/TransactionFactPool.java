@@ -0,0 +1,48 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.TransactionFact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread pool of {@link TransactionFact} instances.
+ * Facts acquired by a thread are valid until the same thread acquires again,
+ * so callers must not keep references beyond a single rule evaluation.
+ */
+public class TransactionFactPool {
+    // Larger batches get fresh facts so the pool does not retain huge batches
+    static final int MAX_POOLED_FACTS = 1024;
+
+    private final ThreadLocal<List<TransactionFact>> facts = ThreadLocal.withInitial(ArrayList::new);
+
+    /**
+     * Get reset facts for the current thread.
+     * 
+     * @param count The number of facts needed
+     * @return The facts
+     */
+    public List<TransactionFact> acquire(int count) {
+        if (count > MAX_POOLED_FACTS) {
+            List<TransactionFact> fresh = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                fresh.add(new TransactionFact());
+            }
+            return fresh;
+        }
+        List<TransactionFact> pooled = facts.get();
+        while (pooled.size() < count) {
+            pooled.add(new TransactionFact());
+        }
+        List<TransactionFact> acquired = pooled.subList(0, count);
+        acquired.forEach(TransactionFact::reset);
+        return acquired;
+    }
+
+    /**
+     * Get a single reset fact for the current thread.
+     */
+    public TransactionFact acquire() {
+        return acquire(1).get(0);
+    }
+}
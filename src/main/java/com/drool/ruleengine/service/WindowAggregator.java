@@ -0,0 +1,115 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.model.Rule;
+import com.drool.ruleengine.model.TransactionFact;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the window aggregates of windowed rules.
+ * 
+ * Before the engine evaluates a transaction, the plain condition of each windowed
+ * rule is checked against the fact as a SpEL expression, also in Drools mode; matching transactions are added to the
+ * customer's sliding window for that rule and the resulting aggregate is set on
+ * the fact. The engines then only compare the aggregate with the rule threshold,
+ * see {@link #engineCondition(Rule)}. Aggregates are kept in memory on the node
+ * that processes the customer's transactions and are never recomputed from the
+ * database. A window is dropped once it has not been used for its own length.
+ */
+@Component
+@Slf4j
+public class WindowAggregator {
+    // Upper bound on the number of (customer, rule) windows kept in memory
+    static final long MAX_WINDOWS = 100_000;
+
+    private record WindowKey(String customerId, long ruleId, int windowSeconds) {
+    }
+
+    private final Cache<WindowKey, SlidingWindow> windows = Caffeine.newBuilder()
+            .maximumSize(MAX_WINDOWS)
+            .expireAfter(new Expiry<WindowKey, SlidingWindow>() {
+                @Override
+                public long expireAfterCreate(WindowKey key, SlidingWindow window, long currentTime) {
+                    return TimeUnit.SECONDS.toNanos(key.windowSeconds());
+                }
+
+                @Override
+                public long expireAfterUpdate(WindowKey key, SlidingWindow window, long currentTime, long currentDuration) {
+                    return TimeUnit.SECONDS.toNanos(key.windowSeconds());
+                }
+
+                @Override
+                public long expireAfterRead(WindowKey key, SlidingWindow window, long currentTime, long currentDuration) {
+                    return TimeUnit.SECONDS.toNanos(key.windowSeconds());
+                }
+            })
+            .build();
+
+    // Compiled plain conditions of windowed rules
+    private final Map<String, Expression> conditionCache = new ConcurrentHashMap<>();
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Get the condition the engines evaluate for a rule. For windowed rules this
+     * compares the window aggregate with the threshold; the plain condition has
+     * already been applied by {@link #apply}.
+     * 
+     * @param rule The rule
+     * @return The condition in Drools syntax
+     */
+    public String engineCondition(Rule rule) {
+        if (!rule.isWindowed() || rule.getId() == null) {
+            return rule.getDrlCondition();
+        }
+        return "aggregate(" + rule.getId() + "L) > " + rule.getWindowThreshold();
+    }
+
+    /**
+     * Update the windows of the customer's windowed rules with a transaction and
+     * set the resulting aggregates on its fact.
+     * 
+     * @param customerId The ID of the customer
+     * @param rules The rules of the customer
+     * @param fact The loaded transaction fact
+     */
+    public void apply(String customerId, List<Rule> rules, TransactionFact fact) {
+        long now = -1;
+        for (Rule rule : rules) {
+            if (!rule.isActive() || !rule.isWindowed() || rule.getId() == null) {
+                continue;
+            }
+            double aggregate = Double.NaN;
+            try {
+                Expression condition = conditionCache.computeIfAbsent(rule.getDrlCondition(),
+                        c -> parser.parseExpression(DrlToSpelConverter.convert(c)));
+                if (Boolean.TRUE.equals(condition.getValue(fact, Boolean.class))) {
+                    now = now < 0 ? clock.millis() : now;
+                    SlidingWindow window = windows.get(
+                            new WindowKey(customerId, rule.getId(), rule.getWindowSeconds()),
+                            key -> new SlidingWindow(TimeUnit.SECONDS.toMillis(key.windowSeconds())));
+                    aggregate = window.addAndGet(now, fact.getAmount(), rule.getWindowFunction());
+                }
+            } catch (Exception e) {
+                log.error("Error updating window of rule '{}': {}", rule.getName(), e.getMessage());
+            }
+            fact.setAggregate(rule.getId(), aggregate);
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,262 @@
+package com.drool.ruleengine.admission;
+
+import com.drool.ruleengine.admission.AdmissionRejectedException.Reason;
+import com.drool.ruleengine.service.RuleEngineService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdmissionControllerTest {
+
+    @Mock
+    private RuleEngineService ruleEngineService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private AdmissionController admissionController;
+
+    @BeforeEach
+    void setUp() {
+        admissionController = new AdmissionController(ruleEngineService, meterRegistry);
+        ReflectionTestUtils.setField(admissionController, "enabled", true);
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 1);
+        ReflectionTestUtils.setField(admissionController, "minLimit", 1);
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 1);
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 5000L);
+        ReflectionTestUtils.setField(admissionController, "backoffIntervalMs", 60000L);
+        ReflectionTestUtils.setField(admissionController, "maxQueuePerCustomer", 8);
+        ReflectionTestUtils.setField(admissionController, "transactionsPerPermit", 10);
+        ReflectionTestUtils.setField(admissionController, "maxRequestShare", 1.0);
+        ReflectionTestUtils.setField(admissionController, "customerRate", 1.0);
+        ReflectionTestUtils.setField(admissionController, "customerBurst", 5.0);
+        ReflectionTestUtils.setField(admissionController, "compileConcurrency", 1);
+        ReflectionTestUtils.setField(admissionController, "compileWaitMs", 10L);
+        admissionController.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRateLimitPerCustomer() {
+        admissionController.acquire("cust01", 5).close();
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.acquire("cust01", 1));
+        assertEquals(Reason.RATE_LIMITED, e.getReason());
+        assertEquals(1, e.getRetryAfterSeconds());
+
+        // Other customers have their own bucket
+        admissionController.acquire("cust02", 1).close();
+        assertEquals(1.0, meterRegistry.get("ruleengine.admission.rejected").tag("reason", "RATE_LIMITED").counter().count());
+    }
+
+    @Test
+    void testLargeBatchIsChargedInFull() {
+        // Admitted with a full bucket, leaving the customer 15 tokens in debt
+        admissionController.acquire("cust01", 20).close();
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.acquire("cust01", 1));
+        assertEquals(Reason.RATE_LIMITED, e.getReason());
+        assertTrue(e.getRetryAfterSeconds() >= 15);
+    }
+
+    @Test
+    void testRejectedRequestIsRefunded() {
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 10L);
+        try (AdmissionController.Permit permit = admissionController.acquire("cust01", 1)) {
+            AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust02", 5));
+            assertEquals(Reason.TIMEOUT, e.getReason());
+        }
+        // The timed out request did not use up the customer's tokens
+        admissionController.acquire("cust02", 5).close();
+    }
+
+    @Test
+    void testBatchesTakePermitsByCost() {
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "minLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 10L);
+        ReflectionTestUtils.setField(admissionController, "customerBurst", 1000.0);
+        admissionController.init();
+
+        try (AdmissionController.Permit batch = admissionController.acquire("cust01", 30)) {
+            assertEquals(3, admissionController.getInFlight());
+            admissionController.acquire("cust02", 1).close();
+            AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust02", 20));
+            assertEquals(Reason.TIMEOUT, e.getReason());
+        }
+
+        // A batch needing more permits than the limit is admitted alone
+        try (AdmissionController.Permit batch = admissionController.acquire("cust03", 1000)) {
+            assertEquals(4, admissionController.getInFlight());
+        }
+        assertEquals(0, admissionController.getInFlight());
+    }
+
+    @Test
+    void testHugeBatchLeavesRoomForOtherCustomers() {
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 20);
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 200);
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 50L);
+        ReflectionTestUtils.setField(admissionController, "transactionsPerPermit", 100);
+        ReflectionTestUtils.setField(admissionController, "maxRequestShare", 0.25);
+        ReflectionTestUtils.setField(admissionController, "customerRate", 500.0);
+        ReflectionTestUtils.setField(admissionController, "customerBurst", 2000.0);
+        admissionController.init();
+
+        List<AdmissionController.Permit> permits = new ArrayList<>();
+        permits.add(admissionController.acquire("hog", 10_000));
+        assertEquals(5, admissionController.getInFlight());
+
+        // Every other customer is admitted right away while the batch runs
+        for (int i = 0; i < 10; i++) {
+            permits.add(admissionController.acquire("cust" + i, 1));
+        }
+        assertEquals(15, admissionController.getInFlight());
+        assertEquals(20, admissionController.getLimit());
+        permits.forEach(AdmissionController.Permit::close);
+        assertEquals(0, admissionController.getInFlight());
+    }
+
+    @Test
+    void testOnlyLockedOutCustomersBackOff() {
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 10L);
+        ReflectionTestUtils.setField(admissionController, "customerBurst", 1000.0);
+        admissionController.init();
+
+        try (AdmissionController.Permit batch = admissionController.acquire("cust01", 40)) {
+            // Waiting behind its own batch does not lower the limit
+            assertEquals(Reason.TIMEOUT, assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust01", 1)).getReason());
+            assertEquals(4, admissionController.getLimit());
+
+            // Locked out customers back off once per interval
+            assertEquals(Reason.TIMEOUT, assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust02", 1)).getReason());
+            assertEquals(3, admissionController.getLimit());
+            assertEquals(Reason.TIMEOUT, assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust03", 1)).getReason());
+            assertEquals(3, admissionController.getLimit());
+        }
+    }
+
+    @Test
+    void testTimedOutHeadUnblocksSmallerRequests() throws Exception {
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "minLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 4);
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 500L);
+        ReflectionTestUtils.setField(admissionController, "customerBurst", 1000.0);
+        admissionController.init();
+
+        try (AdmissionController.Permit batch = admissionController.acquire("cust01", 30)) {
+            // Needs two permits with only one free, so it blocks the queue until it times out
+            Future<?> blocking = executor.submit(() -> admissionController.acquire("cust02", 20).close());
+            awaitQueued(1);
+            Thread.sleep(250);
+            Future<?> small = executor.submit(() -> admissionController.acquire("cust03", 1).close());
+            awaitQueued(2);
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> blocking.get(5, TimeUnit.SECONDS));
+            assertEquals(Reason.TIMEOUT, ((AdmissionRejectedException) e.getCause()).getReason());
+            // Admitted as soon as the head left the queue, not on the next release
+            small.get(5, TimeUnit.SECONDS);
+            assertEquals(3, admissionController.getInFlight());
+        }
+    }
+
+    @Test
+    void testWaitingCustomersAreServedRoundRobin() throws Exception {
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        AdmissionController.Permit first = admissionController.acquire("big", 1);
+
+        Future<?> big2 = admitAndRelease("big-2", "big", admitted);
+        awaitQueued(1);
+        Future<?> big3 = admitAndRelease("big-3", "big", admitted);
+        awaitQueued(2);
+        Future<?> small = admitAndRelease("small", "small", admitted);
+        awaitQueued(3);
+
+        first.close();
+        big2.get(5, TimeUnit.SECONDS);
+        big3.get(5, TimeUnit.SECONDS);
+        small.get(5, TimeUnit.SECONDS);
+
+        // The small customer is served before the second queued request of the big one
+        assertEquals(List.of("big-2", "small", "big-3"), admitted);
+        assertEquals(0, admissionController.getInFlight());
+    }
+
+    @Test
+    void testQueueTimeout() {
+        ReflectionTestUtils.setField(admissionController, "maxWaitMs", 10L);
+        try (AdmissionController.Permit permit = admissionController.acquire("cust01", 1)) {
+            AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust02", 1));
+            assertEquals(Reason.TIMEOUT, e.getReason());
+        }
+        assertEquals(0, admissionController.getQueued());
+    }
+
+    @Test
+    void testCompileBudget() {
+        ReflectionTestUtils.setField(admissionController, "maxLimit", 10);
+        ReflectionTestUtils.setField(admissionController, "initialLimit", 10);
+        admissionController.init();
+        when(ruleEngineService.needsCompile("cust01")).thenReturn(true);
+        when(ruleEngineService.needsCompile("cust02")).thenReturn(true);
+
+        try (AdmissionController.Permit compiling = admissionController.acquire("cust01", 1)) {
+            AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class,
+                    () -> admissionController.acquire("cust02", 1));
+            assertEquals(Reason.COMPILE_BUDGET, e.getReason());
+            assertEquals(1, admissionController.getInFlight());
+        }
+        admissionController.acquire("cust02", 1).close();
+    }
+
+    private Future<?> admitAndRelease(String name, String customerId, List<String> admitted) {
+        return executor.submit(() -> {
+            try (AdmissionController.Permit permit = admissionController.acquire(customerId, 1)) {
+                admitted.add(name);
+            }
+        });
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admissionController.getQueued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, admissionController.getQueued());
+    }
+}
@@ -0,0 +1,114 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MappedRecordReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCsvRecords() throws IOException {
+        Path file = write("cust01__extract.csv",
+                "merchant,merchantType,amount,location\r\n"
+                        + "Best Buy,ELECTRONICS,1200,Tokyo\r\n"
+                        + "\"Joe's \"\"Diner\"\", Inc\",RESTAURANT,-12.5,New York\n"
+                        + "Apple Store,ELECTRONICS,999.99,Tokyo");
+
+        List<Transaction> transactions = readAll(file, 0, MappedRecordReader.DEFAULT_WINDOW_SIZE);
+
+        assertEquals(3, transactions.size());
+        assertEquals("Best Buy", transactions.get(0).getMerchant());
+        assertEquals("ELECTRONICS", transactions.get(0).getMerchantType());
+        assertEquals(1200.0, transactions.get(0).getAmount());
+        assertEquals("Tokyo", transactions.get(0).getLocation());
+        assertEquals("Joe's \"Diner\", Inc", transactions.get(1).getMerchant());
+        assertEquals(-12.5, transactions.get(1).getAmount());
+        assertEquals(999.99, transactions.get(2).getAmount());
+        // Repeated values resolve to the same String instance
+        assertSame(transactions.get(0).getMerchantType(), transactions.get(2).getMerchantType());
+    }
+
+    @Test
+    void testNdjsonRecords() throws IOException {
+        Path file = write("cust01__extract.ndjson",
+                "{\"merchant\":\"Best Buy\",\"merchantType\":\"ELECTRONICS\",\"amount\":1200,\"location\":\"Tokyo\"}\n"
+                        + "\n"
+                        + "{ \"id\": null, \"merchant\": \"Caf\\u00e9 \\\"Central\\\"\", \"amount\": 1.5e2, \"location\": null }\n");
+
+        List<Transaction> transactions = readAll(file, 0, MappedRecordReader.DEFAULT_WINDOW_SIZE);
+
+        assertEquals(2, transactions.size());
+        assertEquals("ELECTRONICS", transactions.get(0).getMerchantType());
+        assertEquals(1200.0, transactions.get(0).getAmount());
+        assertEquals("Café \"Central\"", transactions.get(1).getMerchant());
+        assertEquals(150.0, transactions.get(1).getAmount());
+        assertNull(transactions.get(1).getLocation());
+    }
+
+    @Test
+    void testRecordsCrossingWindowAndResume() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("Merchant ").append(i).append(",GROCERY,").append(i).append(".25,Paris\n");
+        }
+        Path file = write("cust01__large.csv", content.toString());
+
+        // A window smaller than the file forces records to be remapped across window boundaries
+        List<Transaction> all = readAll(file, 0, 64);
+        assertEquals(100, all.size());
+        assertEquals("Merchant 99", all.get(99).getMerchant());
+
+        long checkpoint;
+        try (MappedRecordReader reader = new MappedRecordReader(file, 0, 64)) {
+            reader.readChunk(new CsvRecordParser(), new ArrayList<>(), 40);
+            checkpoint = reader.position();
+        }
+        List<Transaction> resumed = readAll(file, checkpoint, 64);
+        assertEquals(60, resumed.size());
+        assertEquals("Merchant 40", resumed.get(0).getMerchant());
+        assertEquals(40.25, resumed.get(0).getAmount());
+    }
+
+    @Test
+    void testMalformedRecordsAreSkipped() throws IOException {
+        Path file = write("cust01__bad.csv", "Best Buy,ELECTRONICS\nBest Buy,ELECTRONICS,abc,Tokyo\nBest Buy,ELECTRONICS,10,Tokyo\n");
+
+        try (MappedRecordReader reader = new MappedRecordReader(file, 0)) {
+            List<Transaction> transactions = new ArrayList<>();
+            reader.readChunk(new CsvRecordParser(), transactions, 10);
+            assertEquals(1, transactions.size());
+            assertEquals(2, reader.skippedRecords());
+            assertFalse(reader.hasRemaining());
+        }
+    }
+
+    private List<Transaction> readAll(Path file, long offset, long windowSize) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        RecordParser parser = RecordFormat.forFile(file).newParser();
+        try (MappedRecordReader reader = new MappedRecordReader(file, offset, windowSize)) {
+            while (reader.hasRemaining()) {
+                reader.readChunk(parser, transactions, transactions.size() + 10);
+            }
+        }
+        return transactions;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
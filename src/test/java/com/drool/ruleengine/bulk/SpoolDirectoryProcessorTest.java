@@ -0,0 +1,187 @@
+package com.drool.ruleengine.bulk;
+
+import com.drool.ruleengine.model.BulkJobCheckpoint;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.BulkJobCheckpointRepository;
+import com.drool.ruleengine.repository.TransactionRepository;
+import com.drool.ruleengine.service.RuleEngineService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Interrupts bulk jobs between writing a chunk and saving its checkpoint and
+ * verifies that the resumed job neither loses nor duplicates records.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkResume;DB_CLOSE_DELAY=-1",
+        "ruleengine.sync.enabled=false"})
+public class SpoolDirectoryProcessorTest {
+
+    private static final int RECORDS = 5;
+
+    @TempDir
+    Path spoolDir;
+
+    @Autowired
+    private TransactionRepository txRepo;
+
+    @Autowired
+    private BulkJobCheckpointRepository checkpointRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Delegates to the real repository unless a crash is simulated
+    private BulkJobCheckpointRepository crashingCheckpointRepo;
+    private SpoolDirectoryProcessor processor;
+
+    @BeforeEach
+    void startProcessor() throws IOException {
+        RuleEngineService ruleEngineService = mock(RuleEngineService.class);
+        when(ruleEngineService.processTransactions(anyList(), anyString())).thenAnswer(invocation -> {
+            List<Transaction> transactions = invocation.getArgument(0);
+            transactions.forEach(tx -> tx.setCategory("Bulk"));
+            return transactions;
+        });
+        crashingCheckpointRepo = mock(BulkJobCheckpointRepository.class, delegatesTo(checkpointRepo));
+
+        processor = new SpoolDirectoryProcessor(ruleEngineService, txRepo, crashingCheckpointRepo, transactionManager);
+        ReflectionTestUtils.setField(processor, "inputDirectory", spoolDir.toString());
+        ReflectionTestUtils.setField(processor, "outputDirectory", "");
+        ReflectionTestUtils.setField(processor, "sinkType", "file");
+        ReflectionTestUtils.setField(processor, "chunkSize", 2);
+        ReflectionTestUtils.setField(processor, "parallelism", 2);
+        processor.start();
+    }
+
+    @AfterEach
+    void stopProcessor() {
+        processor.stop();
+    }
+
+    @Test
+    void testFileSinkResumesAfterCrash() throws IOException {
+        Path file = writeSpoolFile("cust01__file-resume.csv", "File Merchant");
+
+        // The second chunk reaches the output file but its checkpoint is never saved
+        crashOnSecondCheckpoint();
+        assertThrows(RuntimeException.class, () -> processor.processFile(file));
+        assertTrue(Files.exists(file));
+
+        processor.processFile(file);
+
+        List<String> lines = Files.readAllLines(spoolDir.resolve("out").resolve("cust01__file-resume.classified.csv"));
+        List<String> expected = new ArrayList<>();
+        expected.add("merchant,merchantType,amount,location,category");
+        for (int i = 0; i < RECORDS; i++) {
+            expected.add("File Merchant " + i + ",GROCERY," + i + ".5,Paris,Bulk");
+        }
+        assertEquals(expected, lines);
+        assertCompleted("cust01__file-resume.csv");
+    }
+
+    @Test
+    void testDatabaseSinkResumesAfterCrash() throws IOException {
+        ReflectionTestUtils.setField(processor, "sinkType", "db");
+        Path file = writeSpoolFile("cust02__db-resume.csv", "Db Merchant");
+
+        // Saving the second checkpoint fails, which rolls back the chunk saved with it
+        crashOnSecondCheckpoint();
+        assertThrows(RuntimeException.class, () -> processor.processFile(file));
+        assertEquals(2, merchantsStartingWith("Db Merchant").size());
+
+        processor.processFile(file);
+
+        List<String> merchants = merchantsStartingWith("Db Merchant");
+        assertEquals(List.of("Db Merchant 0", "Db Merchant 1", "Db Merchant 2", "Db Merchant 3", "Db Merchant 4"), merchants);
+        assertCompleted("cust02__db-resume.csv");
+    }
+
+    @Test
+    void testScanSkipsFilesStillBeingWritten() throws Exception {
+        Path hidden = writeSpoolFile(".cust03__upload.csv", "Hidden Merchant");
+        Path file = writeSpoolFile("cust03__growing.csv", "Growing Merchant");
+
+        // First seen, the file may still be growing
+        processor.scan();
+        Files.writeString(file, "Growing Merchant 5,GROCERY,5.5,Paris\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        processor.scan();
+        assertTrue(Files.exists(file));
+
+        // Unchanged since the previous scan
+        processor.scan();
+        Path processed = spoolDir.resolve("processed").resolve(file.getFileName());
+        for (int i = 0; i < 100 && !Files.exists(processed); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(Files.exists(processed));
+        assertEquals(RECORDS + 1, checkpointRepo.findById("cust03__growing.csv").orElseThrow().getRecords());
+        assertTrue(Files.exists(hidden));
+        assertFalse(Files.exists(spoolDir.resolve("processed").resolve(hidden.getFileName())));
+    }
+
+    /**
+     * Fail saving the second checkpoint, i.e. after the second chunk has been
+     * written. Later saves succeed again.
+     */
+    private void crashOnSecondCheckpoint() {
+        int[] saves = {0};
+        doAnswer(invocation -> {
+            if (++saves[0] == 2) {
+                throw new IllegalStateException("Simulated crash");
+            }
+            return checkpointRepo.save(invocation.getArgument(0));
+        }).when(crashingCheckpointRepo).save(any(BulkJobCheckpoint.class));
+    }
+
+    private void assertCompleted(String fileName) {
+        BulkJobCheckpoint checkpoint = checkpointRepo.findById(fileName).orElseThrow();
+        assertTrue(checkpoint.isCompleted());
+        assertEquals(RECORDS, checkpoint.getRecords());
+        assertTrue(Files.exists(spoolDir.resolve("processed").resolve(fileName)));
+        assertFalse(Files.exists(spoolDir.resolve(fileName)));
+    }
+
+    private List<String> merchantsStartingWith(String prefix) {
+        return txRepo.findAll().stream()
+                .map(Transaction::getMerchant)
+                .filter(merchant -> merchant != null && merchant.startsWith(prefix))
+                .sorted()
+                .toList();
+    }
+
+    private Path writeSpoolFile(String name, String merchantPrefix) throws IOException {
+        StringBuilder content = new StringBuilder("merchant,merchantType,amount,location\n");
+        for (int i = 0; i < RECORDS; i++) {
+            content.append(merchantPrefix).append(' ').append(i).append(",GROCERY,").append(i).append(".5,Paris\n");
+        }
+        return Files.writeString(spoolDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
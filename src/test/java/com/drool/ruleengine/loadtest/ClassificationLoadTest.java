@@ -0,0 +1,168 @@
+package com.drool.ruleengine.loadtest;
+
+import com.drool.ruleengine.SampleDroolEngineApplication;
+import com.drool.ruleengine.model.Category;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.CategoryRepository;
+import com.drool.ruleengine.repository.RuleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * End-to-end load test of the full stack: embedded server, controller, admission
+ * control, rule engine and JPA on H2.
+ * 
+ * For each engine mode the application is started on a random port, seeded with a
+ * synthetic rule base and driven with stepped open-loop arrival rates. Each step
+ * reports throughput, HDR latency percentiles, GC activity and allocation per
+ * request on the server's request threads; the saturation point is the highest rate sustained within the p99
+ * objective. Excluded from the regular build, run with:
+ * 
+ * <pre>
+ * mvn -Ploadtest test -Dloadtest.rates=100,200,400,800 -Dloadtest.step-seconds=30
+ * </pre>
+ * 
+ * Settings (system properties): {@code loadtest.engines} (drools,simple),
+ * {@code loadtest.rates}, {@code loadtest.step-seconds}, {@code loadtest.warmup-seconds},
+ * {@code loadtest.seed}, {@code loadtest.customers}, {@code loadtest.rules-per-customer},
+ * {@code loadtest.batch-fraction}, {@code loadtest.max-batch-size}, {@code loadtest.p99-ms},
+ * {@code loadtest.admission}.
+ */
+@Tag("loadtest")
+public class ClassificationLoadTest {
+    private static final int CATEGORY_COUNT = 8;
+    private static final int MERCHANT_COUNT = 2000;
+    // Distinct requests generated per step; the driver cycles through them
+    private static final int REQUESTS_PER_STEP = 20_000;
+
+    private final List<String> engines = Arrays.asList(System.getProperty("loadtest.engines", "drools,simple").split(","));
+    private final double[] rates = Arrays.stream(System.getProperty("loadtest.rates", "50,100,200,400,800").split(","))
+            .mapToDouble(Double::parseDouble)
+            .toArray();
+    private final Duration stepDuration = Duration.ofSeconds(Long.getLong("loadtest.step-seconds", 20));
+    private final Duration warmupDuration = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10));
+    private final long seed = Long.getLong("loadtest.seed", 42);
+    private final int customers = Integer.getInteger("loadtest.customers", 50);
+    private final int rulesPerCustomer = Integer.getInteger("loadtest.rules-per-customer", 20);
+    private final double batchFraction = Double.parseDouble(System.getProperty("loadtest.batch-fraction", "0.1"));
+    private final int maxBatchSize = Integer.getInteger("loadtest.max-batch-size", 50);
+    private final double p99ObjectiveMillis = Double.parseDouble(System.getProperty("loadtest.p99-ms", "100"));
+    private final boolean admission = Boolean.parseBoolean(System.getProperty("loadtest.admission", "true"));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void runLoadTest() throws Exception {
+        List<String> report = new ArrayList<>();
+        for (String engine : engines) {
+            try (ConfigurableApplicationContext context = startNode(engine)) {
+                SyntheticWorkload workload = new SyntheticWorkload(seed, customers, MERCHANT_COUNT);
+                seedRules(context, workload);
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                OpenLoopDriver driver = new OpenLoopDriver(URI.create("http://localhost:" + port));
+
+                // Compile every customer's rules, then warm up the JIT before measuring
+                warmUpCustomers(driver, workload);
+                driver.run(generateRequests(workload), rates[0], warmupDuration, seed);
+
+                System.out.println();
+                System.out.println(StepResult.header());
+                double saturationRate = 0;
+                for (int step = 0; step < rates.length; step++) {
+                    StepResult result = driver.run(generateRequests(workload), rates[step], stepDuration, seed + step);
+                    System.out.println(result.format(engine));
+                    report.add(result.format(engine));
+                    if (!result.sustained(p99ObjectiveMillis)) {
+                        break;
+                    }
+                    saturationRate = rates[step];
+                }
+                report.add(String.format("%s: highest sustained rate %.0f requests/s (p99 <= %.0f ms)",
+                        engine, saturationRate, p99ObjectiveMillis));
+            }
+        }
+
+        System.out.println();
+        System.out.println("Load test summary (seed " + seed + ", " + customers + " customers, "
+                + rulesPerCustomer + " rules per customer)");
+        System.out.println(StepResult.header());
+        report.forEach(System.out::println);
+    }
+
+    private ConfigurableApplicationContext startNode(String engine) {
+        return new SpringApplicationBuilder(SampleDroolEngineApplication.class)
+                .properties(
+                        "server.port=0",
+                        "ruleengine.type=" + engine,
+                        "ruleengine.admission.enabled=" + admission,
+                        // Per-customer quotas would cap the skewed hot customers long before the node
+                        // saturates; only the concurrency limit should produce 429s
+                        "ruleengine.admission.customer-rate=1000000000",
+                        "ruleengine.admission.customer-burst=1000000000",
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + engine + ";DB_CLOSE_DELAY=-1",
+                        // Keep all request threads alive so that no allocation counters are lost between steps
+                        "server.tomcat.threads.max=200",
+                        "server.tomcat.threads.min-spare=200",
+                        // Per-request logging would dominate the measurements
+                        "logging.level.com.drool.ruleengine=WARN")
+                .run();
+    }
+
+    private void seedRules(ConfigurableApplicationContext context, SyntheticWorkload workload) {
+        CategoryRepository categoryRepo = context.getBean(CategoryRepository.class);
+        RuleRepository ruleRepo = context.getBean(RuleRepository.class);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            categories.add(categoryRepo.save(new Category(null, "Load Category " + i, "Synthetic category")));
+        }
+        for (String customerId : workload.customerIds()) {
+            ruleRepo.saveAll(workload.rulesFor(customerId, categories, rulesPerCustomer));
+        }
+    }
+
+    /**
+     * Send one transaction per customer so that every customer's rules are compiled
+     * before the measurements; Zipf-distributed traffic alone would leave the rules
+     * of rarely picked customers uncompiled.
+     */
+    private void warmUpCustomers(OpenLoopDriver driver, SyntheticWorkload workload) throws Exception {
+        for (String customerId : workload.customerIds()) {
+            LoadRequest request = new LoadRequest("/api/transactions/classify?customerId=" + customerId,
+                    objectMapper.writeValueAsBytes(workload.nextTransaction()), 1);
+            int status = driver.send(request);
+            if (status / 100 != 2) {
+                throw new IllegalStateException("Warm-up request of customer " + customerId + " failed with status " + status);
+            }
+        }
+    }
+
+    private List<LoadRequest> generateRequests(SyntheticWorkload workload) throws JsonProcessingException {
+        List<LoadRequest> requests = new ArrayList<>(REQUESTS_PER_STEP);
+        for (int i = 0; i < REQUESTS_PER_STEP; i++) {
+            String customerId = workload.nextCustomerId();
+            if (workload.nextDouble() < batchFraction) {
+                int size = workload.nextBatchSize(maxBatchSize);
+                List<Transaction> batch = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    batch.add(workload.nextTransaction());
+                }
+                requests.add(new LoadRequest("/api/transactions/classify-batch?customerId=" + customerId,
+                        objectMapper.writeValueAsBytes(batch), size));
+            } else {
+                requests.add(new LoadRequest("/api/transactions/classify?customerId=" + customerId,
+                        objectMapper.writeValueAsBytes(workload.nextTransaction()), 1));
+            }
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,67 @@
+package com.drool.ruleengine.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GC and per-thread allocation counters of the JVM at a point in time.
+ * 
+ * Allocation is recorded per thread and split into the server's request threads
+ * and all other threads, which include the load driver running in the same JVM.
+ * Threads started between two snapshots are counted from zero; bytes allocated by
+ * threads that ended in between are lost, so the server keeps its request threads
+ * alive for the whole run. GC counters cover the whole JVM.
+ */
+record JvmSnapshot(long gcCount, long gcTimeMillis, Map<Long, Long> serverThreadBytes, Map<Long, Long> otherThreadBytes) {
+    // Tomcat request threads, e.g. http-nio-8080-exec-1
+    private static final String SERVER_THREAD_PREFIX = "http-nio-";
+
+    static JvmSnapshot take() {
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean sunThreads)
+                || !sunThreads.isThreadAllocatedMemorySupported()) {
+            return new JvmSnapshot(gcCount, gcTime, null, null);
+        }
+        long[] ids = sunThreads.getAllThreadIds();
+        long[] allocated = sunThreads.getThreadAllocatedBytes(ids);
+        ThreadInfo[] infos = sunThreads.getThreadInfo(ids);
+        Map<Long, Long> server = new HashMap<>();
+        Map<Long, Long> other = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            // Ended since the IDs were listed
+            if (infos[i] == null || allocated[i] < 0) {
+                continue;
+            }
+            (infos[i].getThreadName().startsWith(SERVER_THREAD_PREFIX) ? server : other).put(ids[i], allocated[i]);
+        }
+        return new JvmSnapshot(gcCount, gcTime, server, other);
+    }
+
+    JvmUsage since(JvmSnapshot earlier) {
+        return new JvmUsage(gcCount - earlier.gcCount, gcTimeMillis - earlier.gcTimeMillis,
+                allocatedSince(serverThreadBytes, earlier.serverThreadBytes),
+                allocatedSince(otherThreadBytes, earlier.otherThreadBytes));
+    }
+
+    private static long allocatedSince(Map<Long, Long> now, Map<Long, Long> earlier) {
+        if (now == null || earlier == null) {
+            return -1;
+        }
+        long total = 0;
+        for (Map.Entry<Long, Long> thread : now.entrySet()) {
+            total += thread.getValue() - earlier.getOrDefault(thread.getKey(), 0L);
+        }
+        return total;
+    }
+}
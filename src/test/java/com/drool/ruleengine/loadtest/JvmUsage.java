@@ -0,0 +1,8 @@
+package com.drool.ruleengine.loadtest;
+
+/**
+ * GC activity and allocation between two {@link JvmSnapshot}s.
+ * Allocation is -1 if the JVM does not support per-thread allocation counters.
+ */
+record JvmUsage(long gcCount, long gcTimeMillis, long serverAllocatedBytes, long otherAllocatedBytes) {
+}
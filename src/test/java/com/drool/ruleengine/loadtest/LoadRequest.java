@@ -0,0 +1,11 @@
+package com.drool.ruleengine.loadtest;
+
+/**
+ * A pre-serialized classification request.
+ * 
+ * @param path The request path including the query string
+ * @param body The JSON body
+ * @param transactions The number of transactions in the body
+ */
+record LoadRequest(String path, byte[] body, int transactions) {
+}
@@ -0,0 +1,120 @@
+package com.drool.ruleengine.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed average arrival rate regardless of how fast the
+ * server responds. Inter-arrival times are exponentially distributed (Poisson
+ * arrivals). Requests that cannot be sent because too many are outstanding are
+ * counted as dropped rather than delaying the schedule.
+ */
+class OpenLoopDriver {
+    private static final int MAX_OUTSTANDING = 10_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final URI baseUri;
+
+    OpenLoopDriver(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Run the given requests, cycling through them, at an arrival rate.
+     * 
+     * @param requests The requests to send
+     * @param ratePerSecond The average arrival rate
+     * @param duration How long to keep sending
+     * @param seed The seed of the arrival process
+     * @return The measured step
+     */
+    StepResult run(List<LoadRequest> requests, double ratePerSecond, Duration duration, long seed) throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(3);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong transactions = new AtomicLong();
+        long dropped = 0;
+        Semaphore outstanding = new Semaphore(MAX_OUTSTANDING);
+        Random arrivals = new Random(seed);
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+
+        JvmSnapshot before = JvmSnapshot.take();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+        int next = 0;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadRequest request = requests.get(next++ % requests.size());
+            if (!outstanding.tryAcquire()) {
+                dropped++;
+            } else {
+                long scheduled = intended;
+                client.sendAsync(toHttpRequest(request), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long elapsed = System.nanoTime() - scheduled;
+                            if (error != null) {
+                                failed.incrementAndGet();
+                            } else if (response.statusCode() == 429) {
+                                rejected.incrementAndGet();
+                            } else if (response.statusCode() / 100 == 2) {
+                                succeeded.incrementAndGet();
+                                transactions.addAndGet(request.transactions());
+                                latency.recordValue(elapsed);
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                            outstanding.release();
+                        });
+            }
+            intended += (long) (-Math.log(1 - arrivals.nextDouble()) * meanIntervalNanos);
+        }
+
+        // Wait for outstanding requests before taking the measurements
+        if (outstanding.tryAcquire(MAX_OUTSTANDING, REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            outstanding.release(MAX_OUTSTANDING);
+        }
+        long elapsed = System.nanoTime() - start;
+        JvmUsage jvm = JvmSnapshot.take().since(before);
+        return new StepResult(ratePerSecond, elapsed, succeeded.get(), rejected.get(), failed.get(),
+                dropped, transactions.get(), latency, jvm);
+    }
+
+    /**
+     * Send a single request and wait for the response, outside of any measurement.
+     * 
+     * @param request The request to send
+     * @return The HTTP status code
+     */
+    int send(LoadRequest request) throws IOException, InterruptedException {
+        return client.send(toHttpRequest(request), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest toHttpRequest(LoadRequest request) {
+        return HttpRequest.newBuilder(baseUri.resolve(request.path()))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request.body()))
+                .build();
+    }
+}
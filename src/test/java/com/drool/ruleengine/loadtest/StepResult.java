@@ -0,0 +1,59 @@
+package com.drool.ruleengine.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of running one arrival rate against the server.
+ * Latencies are measured from the intended send time of each request, so
+ * queueing in the driver is counted instead of hidden (coordinated omission).
+ */
+record StepResult(double offeredRate, long elapsedNanos, long succeeded, long rejected, long failed,
+                  long dropped, long transactions, Histogram latency, JvmUsage jvm) {
+
+    double throughput() {
+        return succeeded / (elapsedNanos / 1e9);
+    }
+
+    double transactionThroughput() {
+        return transactions / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * @return true if the server kept up with the offered rate within the latency objective
+     */
+    boolean sustained(double p99ObjectiveMillis) {
+        return dropped == 0 && failed == 0
+                && throughput() + rejected / (elapsedNanos / 1e9) >= 0.95 * offeredRate
+                && rejected <= 0.01 * (succeeded + rejected)
+                && percentileMillis(99) <= p99ObjectiveMillis;
+    }
+
+    static String header() {
+        return String.format("%-8s %9s %9s %10s %8s %8s %8s %9s %9s %9s %9s %9s %6s %8s %15s %15s",
+                "engine", "offered/s", "ok/s", "tx/s", "429", "errors", "dropped",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "GCs", "GC ms", "srv alloc/req", "other alloc/req");
+    }
+
+    /**
+     * Format the step as a report line. Server allocation only counts the request
+     * threads; other allocation includes the load driver, and so do the GC figures.
+     */
+    String format(String engine) {
+        return String.format("%-8s %9.0f %9.0f %10.0f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %6d %8d %15s %15s",
+                engine, offeredRate, throughput(), transactionThroughput(), rejected, failed, dropped,
+                percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+                latency.getMaxValue() / 1e6, jvm.gcCount(), jvm.gcTimeMillis(),
+                perRequest(jvm.serverAllocatedBytes()), perRequest(jvm.otherAllocatedBytes()));
+    }
+
+    private String perRequest(long allocatedBytes) {
+        long requests = succeeded + rejected + failed;
+        return allocatedBytes < 0 || requests == 0
+                ? "n/a"
+                : String.format("%.1f KB", allocatedBytes / 1024.0 / requests);
+    }
+}
@@ -0,0 +1,132 @@
+package com.drool.ruleengine.loadtest;
+
+import com.drool.ruleengine.model.Category;
+import com.drool.ruleengine.model.Rule;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.model.WindowFunction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generator of customers, rule sets and transaction streams.
+ * 
+ * Customers, merchants and locations follow Zipf distributions so that a few hot
+ * tenants and popular merchants dominate, as in production. Each merchant has a
+ * fixed merchant type and amounts are log-normally distributed. Rule sets mix
+ * the condition shapes used in practice, including windowed velocity rules.
+ * The same seed always produces the same workload.
+ */
+class SyntheticWorkload {
+    static final String[] MERCHANT_TYPES = {
+            "GROCERY", "RESTAURANT", "ONLINE", "FUEL", "ELECTRONICS", "CLOTHING",
+            "TRANSPORT", "PHARMACY", "ENTERTAINMENT", "UTILITIES", "HOTEL", "AIRLINE"
+    };
+    static final String[] LOCATIONS = {
+            "New York", "London", "Tokyo", "Paris", "Berlin", "Singapore",
+            "Toronto", "Sydney", "Mumbai", "Sao Paulo"
+    };
+    private static final int[] AMOUNT_THRESHOLDS = {25, 50, 100, 250, 500, 1000, 2500};
+
+    private final Random random;
+    private final List<String> customerIds = new ArrayList<>();
+    private final ZipfDistribution customers;
+    private final ZipfDistribution merchants;
+    private final ZipfDistribution merchantTypes;
+    private final ZipfDistribution locations;
+    private final String[] merchantNames;
+    private final String[] merchantTypeOfMerchant;
+
+    SyntheticWorkload(long seed, int customerCount, int merchantCount) {
+        this.random = new Random(seed);
+        this.customers = new ZipfDistribution(customerCount, 1.1);
+        this.merchants = new ZipfDistribution(merchantCount, 1.0);
+        this.merchantTypes = new ZipfDistribution(MERCHANT_TYPES.length, 0.8);
+        this.locations = new ZipfDistribution(LOCATIONS.length, 1.2);
+        for (int i = 0; i < customerCount; i++) {
+            customerIds.add(String.format("load-cust-%04d", i));
+        }
+        merchantNames = new String[merchantCount];
+        merchantTypeOfMerchant = new String[merchantCount];
+        for (int i = 0; i < merchantCount; i++) {
+            merchantNames[i] = "Merchant " + i;
+            merchantTypeOfMerchant[i] = MERCHANT_TYPES[merchantTypes.sample(random)];
+        }
+    }
+
+    List<String> customerIds() {
+        return customerIds;
+    }
+
+    /**
+     * Generate the rule set of a customer.
+     * 
+     * @param customerId The ID of the customer
+     * @param categories The categories rules assign
+     * @param count The number of rules
+     * @return Unsaved rules
+     */
+    List<Rule> rulesFor(String customerId, List<Category> categories, int count) {
+        List<Rule> rules = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Rule rule = new Rule(null, "rule-" + i, condition(), random.nextInt(100), random.nextDouble() < 0.95,
+                    customerId, categories.get(random.nextInt(categories.size())));
+            // 5% velocity rules, e.g. more than 3 ELECTRONICS purchases over 500 in 10 minutes
+            if (random.nextDouble() < 0.05) {
+                rule.setDrlCondition("merchantType == \"" + merchantType() + "\" && amount > " + threshold());
+                rule.setWindowFunction(random.nextBoolean() ? WindowFunction.COUNT : WindowFunction.SUM);
+                rule.setWindowSeconds(600);
+                rule.setWindowThreshold(rule.getWindowFunction() == WindowFunction.COUNT ? 3.0 : 5000.0);
+            }
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    private String condition() {
+        double shape = random.nextDouble();
+        if (shape < 0.35) {
+            return "merchantType == \"" + merchantType() + "\"";
+        } else if (shape < 0.60) {
+            return "amount > " + threshold() + " && merchantType == \"" + merchantType() + "\"";
+        } else if (shape < 0.75) {
+            return "location == \"" + LOCATIONS[locations.sample(random)] + "\" && amount > " + threshold();
+        } else if (shape < 0.90) {
+            return "merchantType != \"" + merchantType() + "\" && amount > " + threshold();
+        }
+        int low = threshold();
+        return "amount >= " + low + " && amount < " + (low * 4);
+    }
+
+    private String merchantType() {
+        return MERCHANT_TYPES[merchantTypes.sample(random)];
+    }
+
+    private int threshold() {
+        return AMOUNT_THRESHOLDS[random.nextInt(AMOUNT_THRESHOLDS.length)];
+    }
+
+    String nextCustomerId() {
+        return customerIds.get(customers.sample(random));
+    }
+
+    Transaction nextTransaction() {
+        int merchant = merchants.sample(random);
+        Transaction tx = new Transaction();
+        tx.setMerchant(merchantNames[merchant]);
+        tx.setMerchantType(merchantTypeOfMerchant[merchant]);
+        // Log-normal amounts with a median around 33
+        tx.setAmount(Math.round(Math.exp(3.5 + 1.2 * random.nextGaussian()) * 100) / 100.0);
+        tx.setLocation(LOCATIONS[locations.sample(random)]);
+        return tx;
+    }
+
+    int nextBatchSize(int maxBatchSize) {
+        return 2 + random.nextInt(Math.max(1, maxBatchSize - 1));
+    }
+
+    double nextDouble() {
+        return random.nextDouble();
+    }
+}
@@ -0,0 +1,148 @@
+package com.drool.ruleengine.service;
+
+import com.drool.ruleengine.SampleDroolEngineApplication;
+import com.drool.ruleengine.model.Category;
+import com.drool.ruleengine.model.Rule;
+import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.repository.CategoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two application contexts against one shared H2 instance to verify
+ * that a rule edit on one node is picked up by the other.
+ */
+public class RuleChangePropagationTest {
+
+    private static final String SHARED_DB_URL = "jdbc:h2:mem:ruleSync;DB_CLOSE_DELAY=-1";
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private final String customerId = "sync-customer";
+
+    @BeforeEach
+    void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(SampleDroolEngineApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + SHARED_DB_URL,
+                        // Polling is triggered manually by the test
+                        "ruleengine.sync.poll-interval-ms=3600000")
+                .run();
+    }
+
+    @Test
+    void testRuleEditPropagatesToOtherNode() {
+        RuleService ruleServiceA = nodeA.getBean(RuleService.class);
+        Category electronics = nodeA.getBean(CategoryRepository.class)
+                .save(new Category(null, "Sync Electronics", "Electronics purchases"));
+        Rule rule = ruleServiceA.saveRule(new Rule(null, "SyncElectro",
+                "amount > 500 && merchantType == \"ELECTRONICS\"",
+                10, true, customerId, electronics));
+
+        // Node B compiles and caches the customer's rules
+        RuleEngineService engineB = nodeB.getBean(RuleEngineService.class);
+        assertEquals("Sync Electronics", engineB.processTransaction(newTransaction(), customerId).getCategory());
+
+        // Node A edits the rule so the transaction no longer matches
+        rule.setDrlCondition("amount > 5000 && merchantType == \"ELECTRONICS\"");
+        ruleServiceA.saveRule(rule);
+
+        // Node B rebuilds the customer's rules after polling the version table
+        nodeB.getBean(RuleChangeSynchronizer.class).poll();
+        assertNull(engineB.processTransaction(newTransaction(), customerId).getCategory());
+    }
+
+    @Test
+    void testConcurrentFirstEditsOfCustomer() throws Exception {
+        RuleSetVersionService versionsA = nodeA.getBean(RuleSetVersionService.class);
+        RuleSetVersionService versionsB = nodeB.getBean(RuleSetVersionService.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 20; i++) {
+                // Both nodes find no version row and insert one at the same time
+                String newCustomerId = "new-customer-" + i;
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Long> bumpA = executor.submit(() -> {
+                    barrier.await();
+                    return versionsA.bump(newCustomerId);
+                });
+                Future<Long> bumpB = executor.submit(() -> {
+                    barrier.await();
+                    return versionsB.bump(newCustomerId);
+                });
+                assertEquals(3, bumpA.get(10, TimeUnit.SECONDS) + bumpB.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testEvictedCustomersAreNoLongerPolled() {
+        RuleService ruleServiceA = nodeA.getBean(RuleService.class);
+        Category electronics = nodeA.getBean(CategoryRepository.class)
+                .save(new Category(null, "Evicted Electronics", "Electronics purchases"));
+        Rule rule = ruleServiceA.saveRule(new Rule(null, "EvictedElectro",
+                "amount > 500 && merchantType == \"ELECTRONICS\"",
+                10, true, customerId, electronics));
+
+        RuleEngineService engineB = nodeB.getBean(RuleEngineService.class);
+        RuleSetVersionService versionsB = nodeB.getBean(RuleSetVersionService.class);
+        RuleChangeSynchronizer synchronizerB = nodeB.getBean(RuleChangeSynchronizer.class);
+        assertEquals("Evicted Electronics", engineB.processTransaction(newTransaction(), customerId).getCategory());
+
+        // Still tracked while its rules are compiled
+        synchronizerB.poll();
+        synchronizerB.poll();
+        assertTrue(versionsB.trackedCustomers().contains(customerId));
+
+        // Once evicted, it is forgotten after a whole poll interval without use
+        nodeB.getBean(CacheManager.class).getCache("customerRules").evict(customerId);
+        nodeB.getBean(DroolsRuleEngine.class).invalidateRules(customerId);
+        synchronizerB.poll();
+        assertFalse(versionsB.trackedCustomers().contains(customerId));
+
+        // Edits made while untracked are picked up when the rules are loaded again
+        rule.setDrlCondition("amount > 5000 && merchantType == \"ELECTRONICS\"");
+        ruleServiceA.saveRule(rule);
+        assertNull(engineB.processTransaction(newTransaction(), customerId).getCategory());
+        assertTrue(versionsB.trackedCustomers().contains(customerId));
+    }
+
+    private Transaction newTransaction() {
+        Transaction tx = new Transaction();
+        tx.setMerchant("Best Buy");
+        tx.setMerchantType("ELECTRONICS");
+        tx.setAmount(1200);
+        tx.setLocation("Tokyo");
+        return tx;
+    }
+}
@@ -3,18 +3,30 @@ package com.drool.ruleengine.service;
 import com.drool.ruleengine.model.Category;
 import com.drool.ruleengine.model.Rule;
 import com.drool.ruleengine.model.Transaction;
+import com.drool.ruleengine.model.WindowFunction;
 import com.drool.ruleengine.repository.RuleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +35,15 @@ public class RuleEngineTest {
     @Mock
     private RuleRepository ruleRepository;
 
+    @Mock
+    private RuleSetVersionService ruleSetVersionService;
+
+    @Spy
+    private FactDictionary factDictionary = new FactDictionary();
+
+    @Spy
+    private WindowAggregator windowAggregator = new WindowAggregator();
+
     @InjectMocks
     private DroolsRuleEngine droolsRuleEngine;
     
@@ -98,6 +119,24 @@ public class RuleEngineTest {
         assertEquals("Food", result.getCategory());
     }
     
+    @Test
+    void testCompileRacingRuleChangeIsNotCached() {
+        when(ruleRepository.findByCustomerId(customerId)).thenReturn(testRules);
+        
+        // The ruleset moves past version 1 while its rules are being compiled
+        when(ruleSetVersionService.track(customerId)).thenReturn(1L);
+        when(ruleSetVersionService.isCurrent(customerId, 1L)).thenReturn(false);
+        assertEquals("Food", droolsRuleEngine.processTransaction(testTransaction, customerId).getCategory());
+        assertTrue(droolsRuleEngine.needsCompile(customerId));
+        
+        // Rules compiled at the current version are cached
+        when(ruleSetVersionService.track(customerId)).thenReturn(2L);
+        when(ruleSetVersionService.isCurrent(customerId, 2L)).thenReturn(true);
+        testTransaction.setCategory(null);
+        assertEquals("Food", droolsRuleEngine.processTransaction(testTransaction, customerId).getCategory());
+        assertFalse(droolsRuleEngine.needsCompile(customerId));
+    }
+    
     @Test
     void testBatchProcessing() {
         // Mock repository response
@@ -131,4 +170,137 @@ public class RuleEngineTest {
         assertEquals("Food", simpleResults.get(0).getCategory());
         assertEquals("Travel", simpleResults.get(1).getCategory());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void testDictionaryEncodedConditions() {
+        Category localCategory = new Category();
+        localCategory.setId(3L);
+        localCategory.setName("Local");
+        
+        Rule localRule = new Rule();
+        localRule.setId(3L);
+        localRule.setName("Local Rule");
+        localRule.setDrlCondition("location == \"New York\" && merchantType != \"AIRLINE\"");
+        localRule.setPriority(1);
+        localRule.setActive(true);
+        localRule.setCustomerId(customerId);
+        localRule.setCategory(localCategory);
+        
+        assertEquals("locationCode == 0 && merchantTypeCode != 1",
+                new FactDictionary().encodeCondition(localRule.getDrlCondition()));
+        
+        when(ruleRepository.findByCustomerId(customerId)).thenReturn(List.of(localRule));
+        
+        Transaction otherCity = new Transaction();
+        otherCity.setMerchantType("RESTAURANT");
+        otherCity.setLocation("Paris");
+        
+        Transaction first = droolsRuleEngine.processTransaction(testTransaction, customerId);
+        assertEquals("Local", first.getCategory());
+        assertNull(droolsRuleEngine.processTransaction(otherCity, customerId).getCategory());
+        
+        testTransaction.setCategory(null);
+        assertEquals("Local", simpleRuleEngine.processTransaction(testTransaction, customerId).getCategory());
+        assertNull(simpleRuleEngine.processTransaction(otherCity, customerId).getCategory());
+        
+    }
+    
+    @Test
+    void testDeserializedValuesAreCanonical() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = "{\"merchant\":\"Test Restaurant\",\"merchantType\":\"RESTAURANT\",\"amount\":100.0,\"location\":\"New York\"}";
+        
+        Transaction first = objectMapper.readValue(json, Transaction.class);
+        Transaction second = objectMapper.readValue(json, Transaction.class);
+        
+        // Repeated values resolve to the same String instance during deserialization
+        assertSame(first.getMerchantType(), second.getMerchantType());
+        assertSame(first.getLocation(), second.getLocation());
+        
+        when(ruleRepository.findByCustomerId(customerId)).thenReturn(testRules);
+        assertEquals("Food", droolsRuleEngine.processTransaction(second, customerId).getCategory());
+    }
+    
+    @Test
+    @Timeout(value = 60, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void testWindowedRule() {
+        Category velocityCategory = new Category();
+        velocityCategory.setId(4L);
+        velocityCategory.setName("Electronics Velocity");
+        
+        // More than 2 ELECTRONICS purchases over 1000 in 10 minutes
+        Rule velocityRule = new Rule();
+        velocityRule.setId(4L);
+        velocityRule.setName("Velocity Rule");
+        velocityRule.setDrlCondition("merchantType == \"ELECTRONICS\" && amount > 1000");
+        velocityRule.setPriority(20);
+        velocityRule.setActive(true);
+        velocityRule.setCustomerId(customerId);
+        velocityRule.setCategory(velocityCategory);
+        velocityRule.setWindowFunction(WindowFunction.COUNT);
+        velocityRule.setWindowSeconds(600);
+        velocityRule.setWindowThreshold(2.0);
+        
+        // More than 4000 spent on ELECTRONICS purchases over 1000 in 10 minutes, evaluated
+        // before the velocity rule so that both windowed rules fire for the same fact
+        Rule spendRule = new Rule();
+        spendRule.setId(5L);
+        spendRule.setName("Spend Rule");
+        spendRule.setDrlCondition("merchantType == \"ELECTRONICS\" && amount > 1000");
+        spendRule.setPriority(30);
+        spendRule.setActive(true);
+        spendRule.setCustomerId(customerId);
+        spendRule.setCategory(velocityCategory);
+        spendRule.setWindowFunction(WindowFunction.SUM);
+        spendRule.setWindowSeconds(600);
+        spendRule.setWindowThreshold(4000.0);
+        
+        String otherCustomerId = "other-customer";
+        when(ruleRepository.findByCustomerId(customerId)).thenReturn(List.of(velocityRule, spendRule));
+        when(ruleRepository.findByCustomerId(otherCustomerId)).thenReturn(List.of(velocityRule));
+        
+        Instant start = Instant.parse("2026-01-01T10:00:00Z");
+        windowAggregator.setClock(Clock.fixed(start, ZoneOffset.UTC));
+        
+        assertNull(droolsRuleEngine.processTransaction(electronics(1500), customerId).getCategory());
+        // Transactions not matching the condition are not counted
+        assertNull(droolsRuleEngine.processTransaction(electronics(500), customerId).getCategory());
+        assertNull(droolsRuleEngine.processTransaction(electronics(2000), customerId).getCategory());
+        assertEquals("Electronics Velocity", droolsRuleEngine.processTransaction(electronics(1200), customerId).getCategory());
+        
+        // Windows are kept per customer
+        List<Transaction> batch = simpleRuleEngine.processTransactions(
+                List.of(electronics(1500), electronics(1500), electronics(1500)), otherCustomerId);
+        assertNull(batch.get(0).getCategory());
+        assertNull(batch.get(1).getCategory());
+        assertEquals("Electronics Velocity", batch.get(2).getCategory());
+        
+        // Once the earlier purchases leave the window the count starts over
+        windowAggregator.setClock(Clock.fixed(start.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        assertNull(simpleRuleEngine.processTransaction(electronics(1500), otherCustomerId).getCategory());
+    }
+    
+    @Test
+    void testWindowWithLateTimestamps() {
+        SlidingWindow window = new SlidingWindow(60_000);
+        assertEquals(1, window.addAndGet(100_000, 10, WindowFunction.COUNT));
+        // Read from the clock a whole window earlier, e.g. by a thread that stalled;
+        // it falls into the slot of the newest bucket and is counted there
+        assertEquals(2, window.addAndGet(40_000, 10, WindowFunction.COUNT));
+        assertEquals(3, window.addAndGet(99_000, 10, WindowFunction.COUNT));
+        assertEquals(4, window.addAndGet(130_000, 10, WindowFunction.COUNT));
+        
+        // Both transactions counted at 100s have left the window with the one at 99s
+        assertEquals(2, window.addAndGet(161_000, 10, WindowFunction.COUNT));
+        assertEquals(30, window.addAndGet(161_500, 10, WindowFunction.SUM));
+    }
+    
+    private Transaction electronics(double amount) {
+        Transaction tx = new Transaction();
+        tx.setMerchant("Best Buy");
+        tx.setMerchantType("ELECTRONICS");
+        tx.setAmount(amount);
+        tx.setLocation("Tokyo");
+        return tx;
+    }
+}